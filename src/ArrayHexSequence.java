@@ -0,0 +1,77 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A HexSequence kept in a plain HexItem[], which is replaced with one twice as big whenever it fills up. This is what
+ * an ArrayList does on the inside, without the List interface around it.
+ */
+public class ArrayHexSequence implements HexSequence
+{
+    private HexItem[] hexes = new HexItem[10];
+    private int size = 0;
+
+    public String getName()
+    {
+        return "array";
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public HexItem get(int index)
+    {
+        Objects.checkIndex(index, size);
+        return hexes[index];
+    }
+
+    public HexItem set(int index, HexItem h)
+    {
+        Objects.checkIndex(index, size);
+        HexItem old = hexes[index];
+        hexes[index] = h;
+        return old;
+    }
+
+    public void insert(int index, HexItem h)
+    {
+        Objects.checkIndex(index, size + 1);
+        if (size == hexes.length)
+            hexes = Arrays.copyOf(hexes, 2 * hexes.length);
+        System.arraycopy(hexes, index, hexes, index + 1, size - index);
+        hexes[index] = h;
+        size++;
+    }
+
+    public HexItem remove(int index)
+    {
+        Objects.checkIndex(index, size);
+        HexItem old = hexes[index];
+        System.arraycopy(hexes, index + 1, hexes, index, size - index - 1);
+        hexes[--size] = null;
+        return old;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(hexes, 0, size, null);
+        size = 0;
+    }
+
+    public int indexOf(HexItem h)
+    {
+        for (int i = 0; i < size; i++)
+            if (Objects.equals(h, hexes[i]))
+                return i;
+        return -1;
+    }
+
+    public ArrayHexSequence copy()
+    {
+        ArrayHexSequence result = new ArrayHexSequence();
+        result.hexes = hexes.clone();
+        result.size = size;
+        return result;
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A HexSequence kept in a list of small fixed-size arrays ("chunks"). Inserting or removing only moves the hexes in
+ * one chunk, at the cost of walking the chunks to find the right one. (This is sometimes called an "unrolled linked
+ * list".)
+ */
+public class ChunkedHexSequence implements HexSequence
+{
+    private static final int CHUNK_SIZE = 64;
+
+    // each chunk holds its hexes at the start of a CHUNK_SIZE array; chunkSizes[c] says how many slots of chunk c are
+    //    in use. (It's an int[] rather than an ArrayList<Integer>, so walking the chunks doesn't unbox every size.
+    //    Only the first chunks.size() entries mean anything, and it is replaced with a bigger one when it fills up.)
+    private final ArrayList<HexItem[]> chunks = new ArrayList<HexItem[]>();
+    private int[] chunkSizes = new int[16];
+    private int size = 0;
+
+    // set by findChunk(): which chunk, and where in it.
+    private int foundChunk, foundOffset;
+
+    public String getName()
+    {
+        return "chunked list";
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * finds the chunk holding the given index and stores it in foundChunk and foundOffset.
+     * @param index - an index into the sequence (0 <= index < size, or index == size to find the end)
+     */
+    private void findChunk(int index)
+    {
+        int c = 0;
+        while (c < chunks.size() - 1 && index >= chunkSizes[c])
+        {
+            index -= chunkSizes[c];
+            c++;
+        }
+        foundChunk = c;
+        foundOffset = index;
+    }
+
+    public HexItem get(int index)
+    {
+        Objects.checkIndex(index, size);
+        findChunk(index);
+        return chunks.get(foundChunk)[foundOffset];
+    }
+
+    public HexItem set(int index, HexItem h)
+    {
+        Objects.checkIndex(index, size);
+        findChunk(index);
+        HexItem[] chunk = chunks.get(foundChunk);
+        HexItem old = chunk[foundOffset];
+        chunk[foundOffset] = h;
+        return old;
+    }
+
+    public void insert(int index, HexItem h)
+    {
+        Objects.checkIndex(index, size + 1);
+        if (chunks.isEmpty())
+        {
+            chunks.add(new HexItem[CHUNK_SIZE]);
+            chunkSizes[0] = 0;
+        }
+        findChunk(index);
+        HexItem[] chunk = chunks.get(foundChunk);
+        int used = chunkSizes[foundChunk];
+        if (used == CHUNK_SIZE)
+        {
+            // split the full chunk in half, and insert into whichever half the index falls in.
+            HexItem[] secondHalf = new HexItem[CHUNK_SIZE];
+            int half = CHUNK_SIZE / 2;
+            System.arraycopy(chunk, half, secondHalf, 0, CHUNK_SIZE - half);
+            Arrays.fill(chunk, half, CHUNK_SIZE, null);
+            addChunkSize(foundChunk + 1, CHUNK_SIZE - half);
+            chunks.add(foundChunk + 1, secondHalf);
+            chunkSizes[foundChunk] = half;
+            if (foundOffset > half)
+            {
+                foundChunk++;
+                foundOffset -= half;
+            }
+            chunk = chunks.get(foundChunk);
+            used = chunkSizes[foundChunk];
+        }
+        System.arraycopy(chunk, foundOffset, chunk, foundOffset + 1, used - foundOffset);
+        chunk[foundOffset] = h;
+        chunkSizes[foundChunk] = used + 1;
+        size++;
+    }
+
+    public HexItem remove(int index)
+    {
+        Objects.checkIndex(index, size);
+        findChunk(index);
+        HexItem[] chunk = chunks.get(foundChunk);
+        int used = chunkSizes[foundChunk];
+        HexItem old = chunk[foundOffset];
+        System.arraycopy(chunk, foundOffset + 1, chunk, foundOffset, used - foundOffset - 1);
+        chunk[used - 1] = null;
+        if (used == 1)
+        {
+            // that was the last hex in this chunk - get rid of it.
+            System.arraycopy(chunkSizes, foundChunk + 1, chunkSizes, foundChunk, chunks.size() - foundChunk - 1);
+            chunks.remove(foundChunk);
+        }
+        else
+            chunkSizes[foundChunk] = used - 1;
+        size--;
+        return old;
+    }
+
+    public void clear()
+    {
+        chunks.clear();
+        size = 0;
+    }
+
+    public int indexOf(HexItem h)
+    {
+        int offset = 0;
+        for (int c = 0; c < chunks.size(); c++)
+        {
+            HexItem[] chunk = chunks.get(c);
+            int used = chunkSizes[c];
+            for (int i = 0; i < used; i++)
+                if (Objects.equals(h, chunk[i]))
+                    return offset + i;
+            offset += used;
+        }
+        return -1;
+    }
+
+    /**
+     * makes room in chunkSizes for one more chunk's size, at the given position. Call this before adding the chunk
+     * itself to chunks.
+     * @param c - where the new chunk will go
+     * @param used - how many hexes the new chunk will hold
+     */
+    private void addChunkSize(int c, int used)
+    {
+        int numChunks = chunks.size();
+        if (numChunks == chunkSizes.length)
+            chunkSizes = Arrays.copyOf(chunkSizes, 2 * chunkSizes.length);
+        System.arraycopy(chunkSizes, c, chunkSizes, c + 1, numChunks - c);
+        chunkSizes[c] = used;
+    }
+
+    public ChunkedHexSequence copy()
+    {
+        ChunkedHexSequence result = new ChunkedHexSequence();
+        for (HexItem[] chunk : chunks)
+            result.chunks.add(chunk.clone());
+        result.chunkSizes = chunkSizes.clone();
+        result.size = size;
+        return result;
+    }
+}
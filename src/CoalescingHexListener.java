@@ -0,0 +1,86 @@
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the changes from an ObservableHexList and passes them on to another listener at most once every so many
+ * milliseconds, on the Swing event thread. Neighbouring changes are merged, so a burst of thousands of adds costs the
+ * listener one call (and, typically, one repaint) instead of thousands.
+ *
+ * usage: myList.addHexCollectionListener(new CoalescingHexListener(myListener, CoalescingHexListener.FRAME_MILLIS));
+ */
+public class CoalescingHexListener implements HexCollectionListener
+{
+    // about one screen refresh at 60 frames per second.
+    public static final int FRAME_MILLIS = 16;
+
+    private final HexCollectionListener target;
+    private final Timer deliveryTimer;
+    private List<HexCollectionEvent> pending = new ArrayList<HexCollectionEvent>();
+
+    /**
+     * @param target - the listener that should get the batched changes
+     * @param delayMillis - how long to wait after a change before delivering it (and anything else that happens in the
+     *                    meantime)
+     */
+    public CoalescingHexListener(HexCollectionListener target, int delayMillis)
+    {
+        this.target = target;
+        deliveryTimer = new Timer(delayMillis, e -> deliver());
+        deliveryTimer.setRepeats(false);
+    }
+
+    /**
+     * called by the list - may be on any thread.
+     */
+    @Override
+    public void collectionChanged(List<HexCollectionEvent> events)
+    {
+        synchronized (this)
+        {
+            for (HexCollectionEvent event : events)
+                addPending(event);
+        }
+        if (!deliveryTimer.isRunning())
+            deliveryTimer.start(); // if it's already running, these changes will go along with the earlier ones.
+    }
+
+    /**
+     * adds an event to the pending list, merging it into the previous one if we can.
+     */
+    private void addPending(HexCollectionEvent event)
+    {
+        if (event.getType() == HexCollectionEvent.Type.CLEAR)
+        {
+            // nothing that happened before a clear() matters any more.
+            pending.clear();
+            pending.add(event);
+            return;
+        }
+        if (!pending.isEmpty())
+        {
+            HexCollectionEvent merged = pending.get(pending.size() - 1).mergeWith(event);
+            if (merged != null)
+            {
+                pending.set(pending.size() - 1, merged);
+                return;
+            }
+        }
+        pending.add(event);
+    }
+
+    /**
+     * runs on the event thread when the timer goes off.
+     */
+    private void deliver()
+    {
+        List<HexCollectionEvent> events;
+        synchronized (this)
+        {
+            events = pending;
+            pending = new ArrayList<HexCollectionEvent>();
+        }
+        if (!events.isEmpty())
+            target.collectionChanged(events);
+    }
+}
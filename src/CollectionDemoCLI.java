@@ -0,0 +1,242 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A second way to start the program, for scripts and for machines without a display. It runs a mix of the collection
+ * operations from CollectionDemoPanel and prints how long they took - without loading Swing, fonts or dialogs. The
+ * GUI is only started (and only then loaded) if you ask for it with --gui.
+ *
+ * usage: java CollectionDemoCLI [--size n] [--ops name:count,name:count,...] [--seed s] [--list arraylist|sharded]
+ *                               [--memory] [--gui]
+ *    e.g. java CollectionDemoCLI --size 100000 --ops ALInsertHexAtLocation:1000,ALGetHexAtIndex:100000
+ */
+public class CollectionDemoCLI
+{
+    private static final String DEFAULT_OPS = "ArrayGetHexAtIndex:10000,ArraySetHexAtIndex:10000,"
+            + "ALGetHexAtIndex:10000,ALSetHexAtIndex:10000,ALInsertHexAtLocation:1000,"
+            + "ALRemoveHexAtLocation:1000,ALContains:100,ALIndexOf:100";
+
+    private int size = 25;
+    private long seed = 1;
+    private boolean useShardedList = false;
+    private boolean showMemory = false;
+    private boolean startGUI = false;
+    private Map<HexOperation, Integer> operationCounts = new LinkedHashMap<HexOperation, Integer>();
+
+    // when main() started, so we can report how long it took to get to the first operation.
+    private static long mainStartNanos;
+
+    public static void main(String[] args)
+    {
+        mainStartNanos = System.nanoTime();
+        CollectionDemoCLI cli = new CollectionDemoCLI();
+        try
+        {
+            cli.parseArguments(args);
+        }
+        catch (IllegalArgumentException exp)
+        {
+            System.err.println(exp.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+        // the GUI classes are only referenced here, so they are only loaded if the GUI is actually requested.
+        if (cli.startGUI)
+        {
+            CollectionDemoRunner.main(new String[0]);
+            return;
+        }
+        // HexItem uses java.awt.Color - make sure that never goes looking for a display.
+        System.setProperty("java.awt.headless", "true");
+        cli.run();
+    }
+
+    private static void printUsage()
+    {
+        System.err.println("usage: java CollectionDemoCLI [--size n] [--ops name:count,...] [--seed s]"
+                + " [--list arraylist|sharded] [--memory] [--gui]");
+        StringBuilder names = new StringBuilder("operations:");
+        for (HexOperation op : HexOperation.values())
+            names.append(" ").append(op.getMethodName());
+        System.err.println(names);
+    }
+
+    /**
+     * reads the command-line arguments into this object's settings.
+     * @param args - the arguments given to main()
+     * @throws IllegalArgumentException if an argument is not understood
+     */
+    public void parseArguments(String[] args)
+    {
+        String ops = DEFAULT_OPS;
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--size":
+                    size = Integer.parseInt(valueAfter(args, i++));
+                    break;
+                case "--ops":
+                    ops = valueAfter(args, i++);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(valueAfter(args, i++));
+                    break;
+                case "--list":
+                    String kind = valueAfter(args, i++);
+                    if (!kind.equals("arraylist") && !kind.equals("sharded"))
+                        throw new IllegalArgumentException("--list must be arraylist or sharded, not " + kind + ".");
+                    useShardedList = kind.equals("sharded");
+                    break;
+                case "--memory":
+                    showMemory = true;
+                    break;
+                case "--gui":
+                    startGUI = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (size < 0)
+            throw new IllegalArgumentException("--size must not be negative.");
+
+        operationCounts.clear();
+        for (String entry : ops.split(","))
+        {
+            String[] parts = entry.trim().split(":");
+            int count = (parts.length > 1) ? Integer.parseInt(parts[1].trim()) : 1;
+            if (count < 1)
+                throw new IllegalArgumentException("The count for " + parts[0].trim() + " must be at least 1, not "
+                        + count + ".");
+            operationCounts.merge(HexOperation.forMethodName(parts[0].trim()), count, Integer::sum);
+        }
+    }
+
+    private static String valueAfter(String[] args, int i)
+    {
+        if (i + 1 >= args.length)
+            throw new IllegalArgumentException(args[i] + " needs a value.");
+        return args[i + 1];
+    }
+
+    /**
+     * builds an array and a list of the requested size, runs each requested operation the requested number of times
+     * at random indices, and prints the timings.
+     *
+     * The indices are all picked before the clock starts, so only the operations themselves are timed. And the first
+     * calls of an operation run slowly, before the JIT has compiled it, so each operation first makes one untimed
+     * warm-up pass - the same calls, on copies of the array and list - and only the second pass, on the real ones, is
+     * timed.
+     */
+    public void run()
+    {
+        long setupStart = System.nanoTime();
+        Random rnd = new Random(seed);
+        HexItem[] array = new HexItem[size];
+        List<HexItem> list = makeList(size);
+        for (int i = 0; i < size; i++)
+        {
+            array[i] = new HexItem();
+            list.add(new HexItem());
+        }
+        HexItem hex = new HexItem();
+        long now = System.nanoTime();
+        System.out.printf("first operation reached %.1f ms after main() started (%.1f ms of that building %,d hexes)%n",
+                (now - mainStartNanos) / 1e6, (now - setupStart) / 1e6, 2L * size);
+
+        long checksum = 0;
+        for (Map.Entry<HexOperation, Integer> entry : operationCounts.entrySet())
+        {
+            HexOperation op = entry.getKey();
+            int count = entry.getValue();
+            int[] indices = pickIndices(op, count, array, list, rnd);
+            int skipped = 0;
+            for (int index : indices)
+                if (index < 0)
+                    skipped++;
+
+            // ---------- the warm-up pass, on copies.
+            List<HexItem> listCopy = makeList(list.size());
+            listCopy.addAll(list);
+            runPass(op, indices, array.clone(), listCopy, hex);
+            listCopy = null;
+
+            // ---------- the timed pass
+            long start = System.nanoTime();
+            checksum += runPass(op, indices, array, list, hex);
+            long elapsed = System.nanoTime() - start;
+            int done = count - skipped;
+            System.out.printf("%-30s %,10d ops %,12.3f ms %,12.1f ns/op%s%n", op.getMethodName(), done,
+                    elapsed / 1e6, (done > 0) ? (double) elapsed / done : 0.0,
+                    (skipped > 0) ? "  (" + skipped + " skipped: nothing to index)" : "");
+        }
+        System.out.printf("final sizes: array %,d, list %,d (checksum %d)%n", array.length, list.size(), checksum);
+
+        if (showMemory)
+            System.out.print(HexMemoryReport.measure(array, list));
+    }
+
+    /**
+     * @param capacity - how many hexes the list should have room for
+     * @return - a new, empty list of the kind asked for with --list
+     */
+    private List<HexItem> makeList(int capacity)
+    {
+        return useShardedList ? new ShardedHexList() : new ArrayList<HexItem>(capacity);
+    }
+
+    /**
+     * picks a random index for each of the calls of an operation, allowing for the calls before it making the list
+     * longer or shorter.
+     * @param op - the operation
+     * @param count - how many calls there will be
+     * @param array - the array of hexes, as it is before the first call
+     * @param list - the list of hexes, as it is before the first call
+     * @param rnd - where to get the random numbers
+     * @return - the index for each call, or -1 for a call that must be skipped because there is nothing to index
+     *           (e.g. removing from an empty list)
+     */
+    private static int[] pickIndices(HexOperation op, int count, HexItem[] array, List<HexItem> list, Random rnd)
+    {
+        int[] indices = new int[count];
+        int limit = op.getIndexLimit(array, list);
+        for (int i = 0; i < count; i++)
+        {
+            if (limit == 0)
+            {
+                indices[i] = -1;
+                continue;
+            }
+            indices[i] = rnd.nextInt(limit);
+            limit += op.getIndexLimitChange();
+        }
+        return indices;
+    }
+
+    /**
+     * calls the operation once for each of the given indices.
+     * @param op - the operation
+     * @param indices - from pickIndices(); -1 means skip that call
+     * @param array - the array of hexes
+     * @param list - the list of hexes
+     * @param hex - the hex to give the operation
+     * @return - the sum of the hash codes of the results, so the calls can't be optimized away
+     */
+    private static long runPass(HexOperation op, int[] indices, HexItem[] array, List<HexItem> list, HexItem hex)
+    {
+        long checksum = 0;
+        for (int index : indices)
+        {
+            if (index < 0)
+                continue;
+            Object result = op.apply(array, list, index, hex);
+            if (result != null)
+                checksum += result.hashCode();
+        }
+        return checksum;
+    }
+}
@@ -4,6 +4,9 @@ import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 // Note: "implements ActionListener" is a promise to implement "ActionPeformed()" method, so this class can receive word
 //     of button presses
@@ -16,6 +19,10 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
     private JSpinner intSpinner;
     private HexItemPanel myHexPanel;
     private JButton newHexButton, nullHexButton, editHexButton;
+    private JButton memoryButton, importButton;
+    private HexSequencePanel sequencePanel;
+    private JComboBox sequenceChoiceComboBox, sequenceCommandsComboBox;
+    private JButton executeSequenceButton, loadSequencesButton;
 
     // these are the text lines for the popup menu.
     private final String[] arrayCommands = {"getHexAtIndex",
@@ -35,13 +42,16 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
                                 "contains",
                                 "indexOf"};
 
+    // the last choice in the sequence combo box, which runs the command on every sequence at once.
+    private static final String COMPARE_ALL = "Compare all";
+
     // a label at the bottom of the screen that displays any exceptions thrown.
     private JLabel exceptionLabel;
 
     public CollectionDemoFrame()
     {
         super("Collection Demo");
-        setSize(800,400);
+        setSize(800,700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         buildInterface();
         setVisible(true);
@@ -54,11 +64,22 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
     {
         // Generate the main panel
         mainPanel = new CollectionDemoPanel();
+        // when the user clicks on a hex, put its index in the spinner. (A click that misses every hex leaves the
+        //    spinner alone, so it doesn't lose whatever number the user had typed there.)
+        mainPanel.addPropertyChangeListener(CollectionDemoPanel.SELECTED_INDEX_PROPERTY, evt ->
+        {
+            if (mainPanel.getSelectedIndex() >= 0)
+                showSelectedIndex(mainPanel.getSelectedIndex());
+        });
+
+        // Generate the panel that compares different ways of storing a sequence of hexes.
+        sequencePanel = new HexSequencePanel();
 
         // Generate the Controls panel.
         Box controlsPanel = Box.createHorizontalBox();
         makeCommandsBox(controlsPanel);
         makeIOBox(controlsPanel);
+        makeToolsBox(controlsPanel);
 
         // Generate the exception Label
         exceptionLabel = new JLabel("");
@@ -66,7 +87,10 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
         // add these generated components to the window.
         getContentPane().setLayout(new BorderLayout());
         getContentPane().add(controlsPanel, BorderLayout.NORTH);
-        getContentPane().add(mainPanel, BorderLayout.CENTER);
+        // the main panel goes on top, and the sequences underneath - drag the divider to give either more room.
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, mainPanel, new JScrollPane(sequencePanel));
+        splitPane.setResizeWeight(0.5);
+        getContentPane().add(splitPane, BorderLayout.CENTER);
         getContentPane().add(exceptionLabel, BorderLayout.SOUTH);
     }
 
@@ -99,6 +123,31 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
         executeALButton = new JButton("Execute");
         executeALButton.addActionListener(this); // if somebody presses the button, call this.actionPeformed().
         arrayListCommandPanel.add(executeALButton);
+
+        JPanel sequenceCommandPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        commandsBox.add(sequenceCommandPanel);
+        sequenceCommandPanel.setBorder(new TitledBorder("Sequences"));
+
+        // one choice per row of the sequence panel, and one more to run the command on all of them.
+        String[] names = sequencePanel.getSequenceNames();
+        String[] sequenceChoices = new String[names.length + 1];
+        System.arraycopy(names, 0, sequenceChoices, 0, names.length);
+        sequenceChoices[names.length] = COMPARE_ALL;
+        sequenceChoiceComboBox = new JComboBox(sequenceChoices);
+        sequenceChoiceComboBox.addActionListener(this);
+        sequenceCommandPanel.add(sequenceChoiceComboBox);
+
+        sequenceCommandsComboBox = new JComboBox(HexSequencePanel.Command.values());
+        sequenceCommandPanel.add(sequenceCommandsComboBox);
+
+        executeSequenceButton = new JButton("Execute");
+        executeSequenceButton.addActionListener(this); // if somebody presses the button, call this.actionPeformed().
+        sequenceCommandPanel.add(executeSequenceButton);
+
+        loadSequencesButton = new JButton("Load AL");
+        loadSequencesButton.setToolTipText("copy the Array List's hexes into every sequence");
+        loadSequencesButton.addActionListener(this); // if somebody presses the button, call this.actionPeformed().
+        sequenceCommandPanel.add(loadSequencesButton);
     }
 
     /**
@@ -148,6 +197,26 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
         hexBox.add(hexButtonsPanel);
     }
 
+    /**
+     * builds the GUI for the diagnostic tools and adds it to the right end of the box displayed in the NORTH of
+     * the screen.
+     * @param controlsPanel - the panel to which to add this.
+     */
+    private void makeToolsBox(Box controlsPanel)
+    {
+        Box toolsBox = Box.createVerticalBox();
+        toolsBox.setBorder(new TitledBorder("tools"));
+        controlsPanel.add(toolsBox);
+
+        memoryButton = new JButton("Memory");
+        memoryButton.addActionListener(this); // if somebody presses the button, call this.actionPeformed().
+        toolsBox.add(memoryButton);
+
+        importButton = new JButton("Import");
+        importButton.addActionListener(this); // if somebody presses the button, call this.actionPeformed().
+        toolsBox.add(importButton);
+    }
+
     /**
      * Invoked when an action occurs.
      * This method automatically is called when a button is pressed,
@@ -167,6 +236,17 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
             executeALCommand(ALCommandsComboBox.getSelectedIndex()); // getSelectedIndex tells us the number of the row of
             //     the comboxbox that is showing.
         }
+        if (e.getSource() == sequenceChoiceComboBox)
+        {
+            // "Compare all" still keeps the last single sequence highlighted, since that's whose result we show.
+            int which = sequenceChoiceComboBox.getSelectedIndex();
+            if (!COMPARE_ALL.equals(sequenceChoiceComboBox.getSelectedItem()))
+                sequencePanel.setSelectedSequence(which);
+        }
+        if (e.getSource() == executeSequenceButton)
+            executeSequenceCommand((HexSequencePanel.Command) sequenceCommandsComboBox.getSelectedItem());
+        if (e.getSource() == loadSequencesButton)
+            sequencePanel.loadAll(mainPanel.getArrayListOfHexes());
         if (e.getSource() == newHexButton)
         {
             myHexPanel.setMyItem(new HexItem());
@@ -177,6 +257,10 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
         }
         if (e.getSource() == editHexButton)
             executeEditHex();
+        if (e.getSource() == memoryButton)
+            executeShowMemoryReport();
+        if (e.getSource() == importButton)
+            executeImport();
     }
 
     /**
@@ -286,11 +370,9 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
                             "AL - Index Of", JOptionPane.INFORMATION_MESSAGE);
                     break;
             }
-            // since the above method calls might have changed what
-            //   should have appeared on the screen, tell the main
-            //   panel that it needs to call paintComponent() at its
-            //   next opportunity.
-            mainPanel.repaint();
+            // no need to repaint here: the ArrayList tells the main
+            //   panel when it has changed, and the panel repaints
+            //   itself (once, however many changes there were).
         }
         catch (Exception exp)
         {
@@ -302,6 +384,42 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
 
     }
 
+    /**
+     * helper method that runs the selected command on the selected sequence in the sequence panel - or on all of
+     * them, if "Compare all" is chosen. Each row of the sequence panel then shows how long the command took.
+     * @param command - the command to run
+     */
+    public void executeSequenceCommand(HexSequencePanel.Command command)
+    {
+        exceptionLabel.setText("");
+        int num = (Integer)(intSpinner.getValue());
+        HexItem hex = myHexPanel.getMyItem();
+        boolean compareAll = COMPARE_ALL.equals(sequenceChoiceComboBox.getSelectedItem());
+        try // because we might throw an exception doing this....
+        {
+            Object result = sequencePanel.runCommand(command, compareAll, num, hex);
+            switch (command)
+            {
+                case GET:
+                    myHexPanel.setMyItem((HexItem) result);
+                    break;
+                case SIZE:
+                case INDEX_OF:
+                    intSpinner.setValue(result);
+                    JOptionPane.showMessageDialog(this, "Method returned " + result,
+                            "Sequence - " + command, JOptionPane.INFORMATION_MESSAGE);
+                    break;
+            }
+        }
+        catch (Exception exp)
+        {
+            // instead of crashing, put the exception at the bottom of
+            // the screen...
+            exceptionLabel.setText(exp.toString());
+            JOptionPane.showMessageDialog(this,exp.toString(),"Error Returned",JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
     /**
      * display a dialog box to allow the user to edit the letter and color of the current hex item.
      */
@@ -327,4 +445,70 @@ public class CollectionDemoFrame extends JFrame implements ActionListener
         }
         repaint();
     }
+
+    /**
+     * display a dialog box with the memory report for the collections in the main panel.
+     */
+    public void executeShowMemoryReport()
+    {
+        JTextArea reportArea = new JTextArea(mainPanel.getMemoryReport());
+        reportArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        reportArea.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(reportArea), "Memory Footprint",
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * asks the user for a "letter,rrggbb" file and which collection to put it in, and then starts importing it. The
+     * progress is shown at the bottom of the screen while the main panel fills in.
+     */
+    public void executeImport()
+    {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+            return;
+        File file = chooser.getSelectedFile();
+        String[] targets = {"Array", "ArrayList"};
+        int target = JOptionPane.showOptionDialog(this, "Import " + file.getName() + " into which collection?",
+                "Import Hexes", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, targets, targets[1]);
+        if (target < 0)
+            return;
+
+        importButton.setEnabled(false);
+        exceptionLabel.setText("Importing " + file.getName() + "...");
+        SwingWorker<Long, List<HexItem>> worker = mainPanel.importHexes(file, target == 0);
+        // the worker tells us about its progress (and when it is done) on the event thread.
+        worker.addPropertyChangeListener(evt ->
+        {
+            if ("progress".equals(evt.getPropertyName()))
+                exceptionLabel.setText("Importing " + file.getName() + "... " + evt.getNewValue() + "%");
+            else if ("state".equals(evt.getPropertyName()) && evt.getNewValue() == SwingWorker.StateValue.DONE)
+            {
+                importButton.setEnabled(true);
+                try
+                {
+                    exceptionLabel.setText("Imported " + worker.get() + " hexes from " + file.getName() + ".");
+                }
+                catch (InterruptedException | ExecutionException exp)
+                {
+                    Throwable cause = (exp.getCause() != null) ? exp.getCause() : exp;
+                    exceptionLabel.setText(cause.toString());
+                    JOptionPane.showMessageDialog(this, cause.toString(), "Error Returned",
+                            JOptionPane.WARNING_MESSAGE);
+                }
+            }
+        });
+    }
+
+    /**
+     * puts the given index into the spinner, making the spinner's range bigger if it has to.
+     * @param index - the index to show
+     */
+    public void showSelectedIndex(int index)
+    {
+        SpinnerNumberModel model = (SpinnerNumberModel) intSpinner.getModel();
+        if (index > (Integer) model.getMaximum())
+            model.setMaximum(index);
+        intSpinner.setValue(index);
+    }
 }
@@ -1,13 +1,37 @@
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 public class CollectionDemoPanel extends JPanel
 {
+    // the name of the property that changes when the user clicks on a hex. (See addPropertyChangeListener().)
+    public static final String SELECTED_INDEX_PROPERTY = "selectedIndex";
+
+    // where paintComponent() draws things. The hex at index i of the array is centered at
+    //    (LEFT_X + SPACING_X * i, ARRAY_Y), and the hex at index i of the ArrayList at
+    //    (LEFT_X + SPACING_X * (i % HEXES_PER_ROW), ARRAY_LIST_Y + ROW_SPACING_Y * (i / HEXES_PER_ROW)).
+    private static final int LEFT_X = 20;
+    private static final int SPACING_X = 30;
+    private static final int ARRAY_Y = 100;
+    private static final int ARRAY_LIST_Y = 200;
+    private static final int ROW_SPACING_Y = 50;
+    private static final int HEXES_PER_ROW = 25;
+
     private Font indexFont;
     private Font titleFont;
     private HexItem[] arrayOfHexes;
-    private ArrayList<HexItem> arrayListOfHexes;
+    // this works just like an ArrayList, but is split into shards so that inserts and removes only shift part of it,
+    //    and it tells its listeners (including this panel) whenever it changes.
+    private ObservableHexList arrayListOfHexes;
+
+    // which hex the user last clicked on: an index into the array (if selectionInArray) or the ArrayList, or -1 for
+    //    none.
+    private int selectedIndex = -1;
+    private boolean selectionInArray;
 
     public CollectionDemoPanel()
     {
@@ -15,7 +39,23 @@ public class CollectionDemoPanel extends JPanel
         indexFont = new Font("Courier",Font.PLAIN, 10);
         titleFont = new Font("Serif",Font.BOLD, 18);
         arrayOfHexes = new HexItem[25];
-        arrayListOfHexes = new ArrayList<HexItem>();
+        arrayListOfHexes = new ObservableHexList(new ShardedHexList());
+        // whenever the ArrayList changes, repaint - but at most once per screen refresh, however many changes there
+        //    were.
+        addArrayListListener(new CoalescingHexListener(events -> repaint(), CoalescingHexListener.FRAME_MILLIS));
+
+        // let the user click on a hex to select it...
+        addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mousePressed(MouseEvent e)
+            {
+                selectHexAt(e.getX(), e.getY());
+            }
+        });
+        // ... and hover over one to see what it is. (Setting any tooltip text registers us with the ToolTipManager,
+        //    which then asks getToolTipText(MouseEvent) what to show as the mouse moves.)
+        setToolTipText("");
         // temp code: start the array list off with two hexes, so you can see them when you write paintComponent().
         arrayListOfHexes.add(new HexItem());
         arrayListOfHexes.add(new HexItem());
@@ -73,6 +113,129 @@ public class CollectionDemoPanel extends JPanel
             //       initially line 40.
         }
 
+        drawSelection(g);
+    }
+
+    //------------------------------------- Selecting hexes with the mouse
+
+    /**
+     * finds which slot of the array, if any, is drawn at the given point. Rather than checking every slot, this works
+     * the layout math backwards to find the one slot the point could be in, and then checks whether the point is
+     * really inside that slot's hexagon.
+     * @param x - the x coordinate, in this panel
+     * @param y - the y coordinate, in this panel
+     * @return - the index of the slot, or -1 if the point isn't on one
+     */
+    public int getArrayIndexAt(int x, int y)
+    {
+        // rounding to the nearest column - neighbouring hexagons only touch at their corners, so no other column's
+        //    hexagon could hold this point.
+        int column = Math.floorDiv(x - LEFT_X + SPACING_X / 2, SPACING_X);
+        if (column < 0 || column >= arrayOfHexes.length)
+            return -1;
+        if (!HexItem.hexagonContains(x - (LEFT_X + SPACING_X * column), y - ARRAY_Y))
+            return -1;
+        return column;
+    }
+
+    /**
+     * finds which item of the ArrayList, if any, is drawn at the given point - in constant time, however long the list
+     * is. (See getArrayIndexAt().)
+     * @param x - the x coordinate, in this panel
+     * @param y - the y coordinate, in this panel
+     * @return - the index of the item, or -1 if the point isn't on one
+     */
+    public int getArrayListIndexAt(int x, int y)
+    {
+        int column = Math.floorDiv(x - LEFT_X + SPACING_X / 2, SPACING_X);
+        int row = Math.floorDiv(y - ARRAY_LIST_Y + ROW_SPACING_Y / 2, ROW_SPACING_Y);
+        if (column < 0 || column >= HEXES_PER_ROW || row < 0)
+            return -1;
+        long index = (long) row * HEXES_PER_ROW + column;
+        if (index >= arrayListOfHexes.size())
+            return -1;
+        if (!HexItem.hexagonContains(x - (LEFT_X + SPACING_X * column), y - (ARRAY_LIST_Y + ROW_SPACING_Y * row)))
+            return -1;
+        return (int) index;
+    }
+
+    /**
+     * selects the hex (or empty slot) at the given point, if there is one, and tells any listeners for
+     * SELECTED_INDEX_PROPERTY about it.
+     */
+    private void selectHexAt(int x, int y)
+    {
+        int oldIndex = selectedIndex;
+        int index = getArrayIndexAt(x, y);
+        selectionInArray = (index >= 0);
+        if (!selectionInArray)
+            index = getArrayListIndexAt(x, y);
+        selectedIndex = index;
+        repaint();
+        firePropertyChange(SELECTED_INDEX_PROPERTY, oldIndex, selectedIndex);
+    }
+
+    /**
+     * @return - the index of the hex the user last clicked on, or -1 if none
+     */
+    public int getSelectedIndex()
+    {
+        return selectedIndex;
+    }
+
+    /**
+     * @return - whether getSelectedIndex() is an index into the array (true) or into the ArrayList (false)
+     */
+    public boolean isSelectionInArray()
+    {
+        return selectionInArray;
+    }
+
+    /**
+     * draws a box around the selected hex, if there is one.
+     * @param g - the graphics context to draw in
+     */
+    private void drawSelection(Graphics g)
+    {
+        int x, y;
+        if (selectionInArray && selectedIndex >= 0 && selectedIndex < arrayOfHexes.length)
+        {
+            x = LEFT_X + SPACING_X * selectedIndex;
+            y = ARRAY_Y;
+        }
+        else if (!selectionInArray && selectedIndex >= 0 && selectedIndex < arrayListOfHexes.size())
+        {
+            x = LEFT_X + SPACING_X * (selectedIndex % HEXES_PER_ROW);
+            y = ARRAY_LIST_Y + ROW_SPACING_Y * (selectedIndex / HEXES_PER_ROW);
+        }
+        else
+            return;
+        g.setColor(Color.RED);
+        g.drawRect(x - HexItem.RADIUS - 1, y - HexItem.RADIUS - 1, 2 * HexItem.RADIUS + 2, 2 * HexItem.RADIUS + 2);
+    }
+
+    /**
+     * Swing calls this as the mouse moves over the panel, to find out what tooltip to show.
+     * @param e - where the mouse is
+     * @return - a description of the hex under the mouse, or null (no tooltip) if there isn't one
+     */
+    @Override
+    public String getToolTipText(MouseEvent e)
+    {
+        int index = getArrayIndexAt(e.getX(), e.getY());
+        if (index >= 0)
+            return describeHex("Array", index, arrayOfHexes[index]);
+        index = getArrayListIndexAt(e.getX(), e.getY());
+        if (index >= 0)
+            return describeHex("ArrayList", index, arrayListOfHexes.get(index));
+        return null;
+    }
+
+    private static String describeHex(String collectionName, int index, HexItem h)
+    {
+        if (h == null)
+            return collectionName + "[" + index + "]: null";
+        return String.format("%s[%d]: %s #%06x", collectionName, index, h.getMyLetter(), h.getMyRGB() & 0xFFFFFF);
     }
 
     //-----------------------------------------  Array Methods
@@ -260,4 +423,112 @@ public class CollectionDemoPanel extends JPanel
         return -1; // temp code for stub function
     }
 
+    //------------------------------------- Listening for changes
+
+    /**
+     * asks to be told whenever arrayListOfHexes changes. Listeners are called right away, on whichever thread made the
+     * change - wrap the listener in a CoalescingHexListener to get the changes in batches on the event thread instead.
+     * @param listener - who to tell
+     */
+    public void addArrayListListener(HexCollectionListener listener)
+    {
+        arrayListOfHexes.addHexCollectionListener(listener);
+    }
+
+    public void removeArrayListListener(HexCollectionListener listener)
+    {
+        arrayListOfHexes.removeHexCollectionListener(listener);
+    }
+
+    //------------------------------------- Importing
+
+    /**
+     * starts reading hexes from a "letter,rrggbb" file (see HexFileImporter) in the background. The hexes are added
+     * a batch at a time, and the panel repaints after each batch, so you can watch them arrive.
+     * @param file - the file to read
+     * @param intoArray - true to fill arrayOfHexes from index 0 (stopping when it is full), false to add the hexes to
+     *                  the end of arrayListOfHexes
+     * @return - the (already started) worker doing the import. Its "progress" goes from 0 to 100, and get() returns
+     * the number of hexes actually stored - for the array, that is no more than its length, however long the file.
+     */
+    public SwingWorker<Long, List<HexItem>> importHexes(File file, boolean intoArray)
+    {
+        HexImportWorker worker = new HexImportWorker(file, intoArray);
+        worker.execute();
+        return worker;
+    }
+
+    /**
+     * runs a HexFileImporter on a background thread, and hands its batches to the event thread to be added to the
+     * collections - so the collections are only ever changed from the event thread, just like the buttons do.
+     */
+    private class HexImportWorker extends SwingWorker<Long, List<HexItem>>
+    {
+        private final File file;
+        private final boolean intoArray;
+        private final int arrayLength;
+        private int nextArrayIndex; // only used on the event thread, in process()
+
+        public HexImportWorker(File file, boolean intoArray)
+        {
+            this.file = file;
+            this.intoArray = intoArray;
+            arrayLength = arrayOfHexes.length;
+        }
+
+        @Override
+        protected Long doInBackground() throws Exception
+        {
+            final long[] numRead = {0};
+            long numImported = new HexFileImporter().importFile(file.toPath(), (batch, bytesRead, totalBytes) ->
+            {
+                publish(batch);
+                numRead[0] += batch.size();
+                setProgress((totalBytes == 0) ? 100 : (int) (100 * bytesRead / totalBytes));
+                // stop early if somebody cancelled us, or if we have already read enough to fill the array.
+                return !isCancelled() && !(intoArray && numRead[0] >= arrayLength);
+            });
+            // the importer reads whole batches, but process() only copies as many as fit into the array. (We work
+            //    this out here rather than counting in process(), which may still be running after we return.)
+            return intoArray ? Math.min(numImported, arrayLength) : numImported;
+        }
+
+        @Override
+        protected void process(List<List<HexItem>> batches)
+        {
+            for (List<HexItem> batch : batches)
+            {
+                if (intoArray)
+                {
+                    int numToCopy = Math.min(batch.size(), arrayOfHexes.length - nextArrayIndex);
+                    for (int i = 0; i < numToCopy; i++)
+                        arrayOfHexes[nextArrayIndex++] = batch.get(i);
+                }
+                else
+                    arrayListOfHexes.addAll(batch); // (the list tells us to repaint.)
+            }
+            if (intoArray)
+                repaint();
+        }
+    }
+
+    //------------------------------------- Diagnostics
+
+    /**
+     * measures how much memory the array, the ArrayList and the HexItems they hold are keeping alive.
+     * @return - a multi-line report, as produced by HexMemoryReport
+     */
+    public String getMemoryReport()
+    {
+        return HexMemoryReport.measure(arrayOfHexes, arrayListOfHexes).toString();
+    }
+
+    /**
+     * @return - a read-only view of the ArrayList's hexes, e.g. to copy them into the HexSequencePanel
+     */
+    public List<HexItem> getArrayListOfHexes()
+    {
+        return Collections.unmodifiableList(arrayListOfHexes);
+    }
+
 }
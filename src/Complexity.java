@@ -0,0 +1,45 @@
+/**
+ * The usual "big-O" classes for how an operation's running time grows with the size, n, of the collection, from best
+ * to worst.
+ */
+public enum Complexity
+{
+    CONSTANT("O(1)"),
+    LOGARITHMIC("O(log n)"),
+    LINEAR("O(n)"),
+    LINEARITHMIC("O(n log n)"),
+    QUADRATIC("O(n^2)");
+
+    private final String label;
+
+    Complexity(String label)
+    {
+        this.label = label;
+    }
+
+    /**
+     * @param n - the size of the collection
+     * @return - how much work this class of operation does at that size, up to a constant factor
+     */
+    public double growth(double n)
+    {
+        switch (this)
+        {
+            case CONSTANT:
+                return 1;
+            case LOGARITHMIC:
+                return Math.log(n);
+            case LINEAR:
+                return n;
+            case LINEARITHMIC:
+                return n * Math.log(n);
+            default:
+                return n * n;
+        }
+    }
+
+    public String toString()
+    {
+        return label;
+    }
+}
@@ -0,0 +1,376 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how the running time of each collection operation (see HexOperation) actually grows as the collections get
+ * bigger, and checks it against how it is supposed to grow.
+ *
+ * Each operation is timed on collections of geometrically increasing sizes (1024, 2048, 4096, ...). If the time grows
+ * like n^k, then log(time) is a straight line against log(n) with slope k, so we fit that slope and flag any operation
+ * whose slope is clearly steeper than its expected class allows. Operations that look fine at the demo's 25 hexes can
+ * still be far too slow at a million.
+ *
+ * What is timed is HexOperation's code, not CollectionDemoPanel's (whose methods are left for students to write). The
+ * AL* operations run against a real List - a ShardedHexList, as the panel uses, or an ArrayList - so they check that
+ * List backend. The Array* operations would only be checking HexOperation's own one-line array code, which can't be
+ * slow, so they are shown as a baseline to compare with and are never flagged.
+ *
+ * This doesn't need the GUI:
+ *     java ComplexityProfiler [--sizes k] [--list arraylist|sharded]
+ * prints the report and exits with status 1 if any operation is slower than it should be, so it can be used as a check
+ * in a build script.
+ */
+public class ComplexityProfiler
+{
+    public static final int DEFAULT_SMALLEST_SIZE = 1024;
+    public static final int DEFAULT_NUM_SIZES = 9;
+
+    // how long to spend timing each operation at each size, and the limits on how we split that time up.
+    private static final long TIME_PER_SIZE_NANOS = 5_000_000;
+    private static final long TIME_PER_BATCH_NANOS = 200_000;
+    private static final int MIN_BATCHES = 7;
+    private static final int MAX_BATCHES = 2000;
+    private static final int MAX_CALLS_PER_BATCH = 1024;
+    private static final int WARMUP_PASSES = 2;
+
+    // how much steeper than its expected class an operation's log-log slope may be before we call it slow. Caches
+    //    make timings jump as the collections outgrow them, which adds up to about 0.2 to the slope of an O(n)
+    //    operation, so this can't be much smaller. It is still small enough to catch a half-power too many: O(sqrt n)
+    //    where O(1) was expected, or O(n^1.5) where O(n) was. (Over sizes like ours, a log factor only adds about 0.1
+    //    to the slope, so O(1) vs O(log n) and O(n) vs O(n log n) can't be told apart from noise.)
+    public static final double SLOPE_MARGIN = 0.35;
+
+    /**
+     * the measurements for one operation.
+     */
+    public static class Result
+    {
+        private final HexOperation operation;
+        private final int[] sizes;
+        private final double[] nanosPerCall;
+        private final double measuredSlope;
+        private final Complexity measuredComplexity;
+
+        public Result(HexOperation operation, int[] sizes, double[] nanosPerCall)
+        {
+            this.operation = operation;
+            this.sizes = sizes;
+            this.nanosPerCall = nanosPerCall;
+            measuredSlope = fitSlope(sizes, nanosPerCall);
+            measuredComplexity = fit(sizes, nanosPerCall);
+        }
+
+        public HexOperation getOperation()
+        {
+            return operation;
+        }
+
+        /**
+         * @return - the complexity class that best fits the timings
+         */
+        public Complexity getMeasuredComplexity()
+        {
+            return measuredComplexity;
+        }
+
+        /**
+         * @return - the slope of log(time) against log(n) - roughly, the k in "the time grows like n^k"
+         */
+        public double getMeasuredSlope()
+        {
+            return measuredSlope;
+        }
+
+        /**
+         * @return - whether this operation tests anything beyond HexOperation's own code (see the class comment) - that
+         * is, whether it runs against the List backend
+         */
+        public boolean isChecked()
+        {
+            return !operation.isArrayOperation();
+        }
+
+        /**
+         * @return - whether the timings grow faster than the operation's expected complexity allows. (Always false for
+         * the Array* baseline.)
+         */
+        public boolean exceedsExpected()
+        {
+            return isChecked()
+                    && measuredSlope > expectedSlope(operation.getExpectedComplexity(), sizes) + SLOPE_MARGIN;
+        }
+
+        /**
+         * @param i - which size (0 is the smallest)
+         * @return - the median time for one call at that size, in nanoseconds
+         */
+        public double getNanosPerCall(int i)
+        {
+            return nanosPerCall[i];
+        }
+    }
+
+    private final int[] sizes;
+    private final boolean useShardedList;
+    private final HexItem[] pool; // the hexes we fill the collections with
+    private final HexItem probe; // a hex that is never in the collections, for contains() and indexOf()
+    private long sink; // results go here, so the JIT can't decide the operations are useless and skip them
+
+    /**
+     * @param smallestSize - the size of the smallest collections to time
+     * @param numSizes - how many sizes to time; each is twice the one before
+     * @param useShardedList - true to time a ShardedHexList (as CollectionDemoPanel uses), false for a plain ArrayList
+     */
+    public ComplexityProfiler(int smallestSize, int numSizes, boolean useShardedList)
+    {
+        if (smallestSize < 16 || numSizes < 6)
+            throw new IllegalArgumentException("Need a smallest size of at least 16, and at least 6 sizes to fit.");
+        sizes = new int[numSizes];
+        for (int i = 0; i < numSizes; i++)
+            sizes[i] = smallestSize << i;
+        this.useShardedList = useShardedList;
+
+        // build the hexes once, up front, so refilling a collection is just copying references.
+        int largest = sizes[numSizes - 1];
+        pool = new HexItem[largest + largest / 8];
+        for (int i = 0; i < pool.length; i++)
+            pool[i] = new HexItem();
+        probe = new HexItem("?", 0);
+    }
+
+    /**
+     * times every operation.
+     * @return - one result per operation, in HexOperation order
+     */
+    public List<Result> profileAll()
+    {
+        // a couple of unrecorded passes at the smaller sizes first, so the JIT has compiled everything before we time
+        //    it. (Otherwise the first sizes we time are partly interpreted, which makes them look much too slow.)
+        for (int pass = 0; pass < WARMUP_PASSES; pass++)
+            for (HexOperation op : HexOperation.values())
+                for (int i = 0; i < 3; i++)
+                    timeAtSize(op, sizes[i]);
+
+        List<Result> results = new ArrayList<Result>();
+        for (HexOperation op : HexOperation.values())
+            results.add(profile(op));
+        return results;
+    }
+
+    /**
+     * times one operation at each size.
+     * @param op - the operation to time
+     * @return - the timings and the complexity that fits them best
+     */
+    public Result profile(HexOperation op)
+    {
+        double[] nanos = new double[sizes.length];
+        for (int i = 0; i < sizes.length; i++)
+            nanos[i] = timeAtSize(op, sizes[i]);
+        return new Result(op, sizes, nanos);
+    }
+
+    /**
+     * times the given operation on collections of size n. The calls are made in batches (so that quick operations
+     * take long enough to measure), and we return the median batch, so a stray garbage collection doesn't skew it.
+     * @return - the median time per call, in nanoseconds
+     */
+    private double timeAtSize(HexOperation op, int n)
+    {
+        HexItem[] array = new HexItem[n];
+        List<HexItem> list = useShardedList ? new ShardedHexList() : new ArrayList<HexItem>();
+        refill(array, list, n);
+
+        // emptying a collection only does real work once, so those operations get a fresh collection every call.
+        boolean emptiesCollection = (op == HexOperation.ARRAY_REMOVE_ALL_HEXES
+                || op == HexOperation.AL_REMOVE_ALL_HEXES);
+        // for operations that change the list's size, don't let it drift more than this far from n.
+        int maxDrift = Math.max(1, n / 8);
+
+        // time a few single calls to guess how many fit in a batch. We take the quickest, because the first call can do
+        //    one-off work - e.g. the first add to a freshly filled ArrayList grows its array - and guessing from that
+        //    would make the batches so small that calling nanoTime() takes longer than the calls we're timing.
+        long oneCall = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++)
+            oneCall = Math.min(oneCall, timeCalls(op, array, list, 1));
+        int callsPerBatch = (int) Math.max(1, Math.min(TIME_PER_BATCH_NANOS / Math.max(oneCall, 1),
+                MAX_CALLS_PER_BATCH));
+        if (emptiesCollection)
+            callsPerBatch = 1;
+        callsPerBatch = Math.min(callsPerBatch, maxDrift);
+
+        double[] samples = new double[MAX_BATCHES];
+        int numSamples = 0;
+        long timeSpent = 0;
+        while (numSamples < MAX_BATCHES && (numSamples < MIN_BATCHES || timeSpent < TIME_PER_SIZE_NANOS))
+        {
+            if (emptiesCollection || Math.abs(list.size() - n) + callsPerBatch > maxDrift)
+                refill(array, list, n);
+            long elapsed = timeCalls(op, array, list, callsPerBatch);
+            samples[numSamples++] = (double) elapsed / callsPerBatch;
+            timeSpent += elapsed;
+        }
+        Arrays.sort(samples, 0, numSamples);
+        return samples[numSamples / 2];
+    }
+
+    /**
+     * calls the operation the given number of times, at an index in the middle of the collection.
+     * @return - how long that took, in nanoseconds
+     */
+    private long timeCalls(HexOperation op, HexItem[] array, List<HexItem> list, int numCalls)
+    {
+        int index = op.getIndexLimit(array, list) / 2;
+        long start = System.nanoTime();
+        for (int i = 0; i < numCalls; i++)
+        {
+            Object result = op.apply(array, list, index, probe);
+            if (result != null)
+                sink++;
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * puts the first n hexes from the pool back into the array and the list.
+     */
+    private void refill(HexItem[] array, List<HexItem> list, int n)
+    {
+        System.arraycopy(pool, 0, array, 0, n);
+        list.clear();
+        list.addAll(Arrays.asList(pool).subList(0, n));
+    }
+
+    /**
+     * fits a straight line to log(time) against log(n), by least squares, and returns its slope. If the time grows
+     * like n^k, the slope is k.
+     * @param sizes - the collection sizes
+     * @param nanos - the time per call at each size
+     * @return - the slope
+     */
+    public static double fitSlope(int[] sizes, double[] nanos)
+    {
+        double meanX = 0, meanY = 0;
+        for (int i = 0; i < sizes.length; i++)
+        {
+            meanX += Math.log(sizes[i]);
+            meanY += Math.log(Math.max(nanos[i], 0.1));
+        }
+        meanX /= sizes.length;
+        meanY /= sizes.length;
+        double covariance = 0, varianceX = 0;
+        for (int i = 0; i < sizes.length; i++)
+        {
+            double dx = Math.log(sizes[i]) - meanX;
+            covariance += dx * (Math.log(Math.max(nanos[i], 0.1)) - meanY);
+            varianceX += dx * dx;
+        }
+        return covariance / varianceX;
+    }
+
+    /**
+     * @param c - a complexity class
+     * @param sizes - the collection sizes
+     * @return - the slope fitSlope() would find for an operation that does exactly c.growth(n) work at these sizes.
+     *           (0 for O(1), 1 for O(n), and a little more than that when there is a log factor.)
+     */
+    public static double expectedSlope(Complexity c, int[] sizes)
+    {
+        double[] growth = new double[sizes.length];
+        for (int i = 0; i < sizes.length; i++)
+            growth[i] = c.growth(sizes[i]);
+        return fitSlope(sizes, growth);
+    }
+
+    /**
+     * finds whichever of O(1), O(n) and O(n^2) has the slope (see expectedSlope()) closest to the slope of the
+     * timings. The classes with a log factor are left out, since over sizes like ours they can't be told apart from
+     * their neighbours (see SLOPE_MARGIN). This is just a label for the report - whether an operation is too slow is
+     * decided by exceedsExpected().
+     * @param sizes - the collection sizes
+     * @param nanos - the time per call at each size
+     * @return - the nearest complexity class
+     */
+    public static Complexity fit(int[] sizes, double[] nanos)
+    {
+        double slope = fitSlope(sizes, nanos);
+        Complexity nearest = Complexity.CONSTANT;
+        for (Complexity c : new Complexity[]{Complexity.LINEAR, Complexity.QUADRATIC})
+            if (Math.abs(expectedSlope(c, sizes) - slope) < Math.abs(expectedSlope(nearest, sizes) - slope))
+                nearest = c;
+        return nearest;
+    }
+
+    /**
+     * @param results - the results from profileAll()
+     * @return - a table of the timings, the expected and measured complexity of each operation, and whether it passed
+     */
+    public String report(List<Result> results)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("list: %s%n", useShardedList ? "ShardedHexList" : "ArrayList"));
+        sb.append(String.format("(The AL* operations are checked against this list. The Array* ones only time"
+                + " HexOperation's own array code,%n as a baseline - they don't test CollectionDemoPanel, and are never"
+                + " flagged.)%n"));
+        sb.append(String.format("%-30s %-10s %-10s %6s %-6s", "operation", "expected", "measured", "slope", ""));
+        for (int n : sizes)
+            sb.append(String.format(" %10s", "n=" + n));
+        sb.append(String.format("   (ns per call)%n"));
+        for (Result r : results)
+        {
+            sb.append(String.format("%-30s %-10s %-10s %6.2f %-6s", r.getOperation().getMethodName(),
+                    r.getOperation().getExpectedComplexity(), r.getMeasuredComplexity(), r.getMeasuredSlope(),
+                    !r.isChecked() ? "base" : r.exceedsExpected() ? "SLOW" : "ok"));
+            for (int i = 0; i < sizes.length; i++)
+                sb.append(String.format(" %10.1f", r.getNanosPerCall(i)));
+            sb.append(String.format("%n"));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args)
+    {
+        int numSizes = DEFAULT_NUM_SIZES;
+        boolean sharded = true;
+        try
+        {
+            for (int i = 0; i < args.length; i += 2)
+            {
+                String name = args[i];
+                if (!name.equals("--sizes") && !name.equals("--list"))
+                    throw new IllegalArgumentException("Unknown argument: " + name);
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException(name + " needs a value.");
+                String value = args[i + 1];
+                if (name.equals("--sizes"))
+                    numSizes = Integer.parseInt(value);
+                else if (!value.equals("arraylist") && !value.equals("sharded"))
+                    throw new IllegalArgumentException("--list must be arraylist or sharded, not " + value + ".");
+                else
+                    sharded = value.equals("sharded");
+            }
+        }
+        catch (IllegalArgumentException exp) // (this includes the NumberFormatException from a bad --sizes.)
+        {
+            System.err.println(exp.getMessage());
+            System.err.println("usage: java ComplexityProfiler [--sizes k] [--list arraylist|sharded]");
+            System.exit(2);
+        }
+
+        ComplexityProfiler profiler = new ComplexityProfiler(DEFAULT_SMALLEST_SIZE, numSizes, sharded);
+        List<Result> results = profiler.profileAll();
+        System.out.print(profiler.report(results));
+
+        int numSlow = 0;
+        for (Result r : results)
+            if (r.exceedsExpected())
+                numSlow++;
+        if (numSlow > 0)
+        {
+            System.out.println(numSlow + " operation(s) grow faster than expected.");
+            System.exit(1);
+        }
+        System.out.println("All operations are within their expected complexity.");
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Describes one change to an ObservableHexList: some items were replaced, inserted or removed, or the whole list was
+ * cleared. The change covers the indices firstIndex..lastIndex (inclusive):
+ *   - for SET and INSERT, these are the indices the items have now;
+ *   - for REMOVE and CLEAR, these are the indices the items had before they were removed.
+ */
+public class HexCollectionEvent
+{
+    public enum Type { SET, INSERT, REMOVE, CLEAR }
+
+    private final Object source;
+    private final Type type;
+    private final int firstIndex, lastIndex;
+
+    public HexCollectionEvent(Object source, Type type, int firstIndex, int lastIndex)
+    {
+        this.source = source;
+        this.type = type;
+        this.firstIndex = firstIndex;
+        this.lastIndex = lastIndex;
+    }
+
+    public Object getSource()
+    {
+        return source;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public int getFirstIndex()
+    {
+        return firstIndex;
+    }
+
+    public int getLastIndex()
+    {
+        return lastIndex;
+    }
+
+    /**
+     * @return - how many items this change covers
+     */
+    public int getLength()
+    {
+        return lastIndex - firstIndex + 1;
+    }
+
+    /**
+     * tries to describe this change followed by the given one as a single change - e.g. adding item 7 and then item 8
+     * is the same as inserting items 7..8.
+     * @param next - the change that happened right after this one
+     * @return - the combined change, or null if the two can't be described as one
+     */
+    public HexCollectionEvent mergeWith(HexCollectionEvent next)
+    {
+        if (next.source != source || next.type != type)
+            return null;
+        switch (type)
+        {
+            case SET:
+                // overlapping or touching ranges of replaced items.
+                if (next.firstIndex <= lastIndex + 1 && next.lastIndex >= firstIndex - 1)
+                    return new HexCollectionEvent(source, type, Math.min(firstIndex, next.firstIndex),
+                            Math.max(lastIndex, next.lastIndex));
+                return null;
+            case INSERT:
+                // inserting right after (or right at the start of) the items we just inserted.
+                if (next.firstIndex >= firstIndex && next.firstIndex <= lastIndex + 1)
+                    return new HexCollectionEvent(source, type, firstIndex, lastIndex + next.getLength());
+                return null;
+            case REMOVE:
+                // removing again at the same place (the next items slid down into it)...
+                if (next.firstIndex == firstIndex)
+                    return new HexCollectionEvent(source, type, firstIndex, lastIndex + next.getLength());
+                // ... or removing the items just before the ones we removed.
+                if (next.lastIndex == firstIndex - 1)
+                    return new HexCollectionEvent(source, type, next.firstIndex, lastIndex);
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    public String toString()
+    {
+        return type + "[" + firstIndex + ".." + lastIndex + "]";
+    }
+}
@@ -0,0 +1,15 @@
+import java.util.List;
+
+/**
+ * Something that wants to know when an ObservableHexList changes.
+ */
+public interface HexCollectionListener
+{
+    /**
+     * called after the list has changed.
+     * @param events - what changed, in the order it happened. (A listener that was added directly gets one event per
+     *               change; one wrapped in a CoalescingHexListener gets everything since the last delivery, with
+     *               neighbouring changes merged.)
+     */
+    void collectionChanged(List<HexCollectionEvent> events);
+}
@@ -0,0 +1,172 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads HexItems from a text file with one hex per line, in the form
+ *     letter,rrggbb
+ * e.g. "Q,ff8040". (A '#' before the color is allowed; blank lines are skipped.)
+ *
+ * The file is streamed through a FileChannel into one reusable buffer, and each line is decoded straight from the
+ * bytes - we never make a String per line. The hexes are handed to a BatchListener a batch at a time, so the caller
+ * can show them as they arrive, and so that the importer itself only ever holds one buffer and one batch in memory.
+ *
+ * This class doesn't use Swing, so it can be used headlessly as well as from CollectionDemoPanel.
+ */
+public class HexFileImporter
+{
+    /**
+     * receives the hexes from an import, a batch at a time.
+     */
+    public interface BatchListener
+    {
+        /**
+         * called each time a batch of hexes has been read.
+         * @param batch - the hexes, in file order. The importer won't touch this list again, so it is yours to keep.
+         * @param bytesRead - how far through the file we are
+         * @param totalBytes - the size of the file
+         * @return - true to keep reading, or false to stop the import here
+         */
+        boolean batchImported(List<HexItem> batch, long bytesRead, long totalBytes);
+    }
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // one shared String per possible letter byte, so lines don't each need their own.
+    private static final String[] LETTERS = new String[256];
+
+    static
+    {
+        for (int i = 0; i < LETTERS.length; i++)
+            LETTERS[i] = new String(new byte[]{(byte) i}, StandardCharsets.ISO_8859_1);
+    }
+
+    private final int batchSize;
+
+    public HexFileImporter()
+    {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize - how many hexes to collect before handing them to the listener
+     */
+    public HexFileImporter(int batchSize)
+    {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be at least 1, not " + batchSize + ".");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * reads the whole file (or until the listener says to stop), handing the hexes to the listener in batches.
+     * @param path - the file to read
+     * @param listener - who gets the hexes
+     * @return - the number of hexes read
+     * @throws IOException - if the file can't be read, or a line isn't in "letter,rrggbb" form
+     */
+    public long importFile(Path path, BatchListener listener) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long totalBytes = channel.size();
+            long bytesRead = 0;
+            long count = 0;
+            long lineNumber = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            List<HexItem> batch = new ArrayList<HexItem>(batchSize);
+
+            boolean endOfFile = false;
+            while (!endOfFile)
+            {
+                int n = channel.read(buffer);
+                if (n < 0)
+                    endOfFile = true;
+                else
+                    bytesRead += n;
+                int limit = buffer.position();
+
+                // decode every complete line in the buffer (and, at the end of the file, the last one even if it has
+                //    no newline).
+                int lineStart = 0;
+                while (lineStart < limit)
+                {
+                    int lineEnd = lineStart;
+                    while (lineEnd < limit && bytes[lineEnd] != '\n')
+                        lineEnd++;
+                    if (lineEnd == limit && !endOfFile)
+                        break; // an incomplete line - wait for the rest of it.
+
+                    lineNumber++;
+                    HexItem h = decodeLine(bytes, lineStart, lineEnd, lineNumber);
+                    if (h != null)
+                    {
+                        batch.add(h);
+                        count++;
+                        if (batch.size() == batchSize)
+                        {
+                            if (!listener.batchImported(batch, bytesRead, totalBytes))
+                                return count;
+                            batch = new ArrayList<HexItem>(batchSize);
+                        }
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                if (lineStart == 0 && limit == bytes.length)
+                    throw new IOException("Line " + (lineNumber + 1) + " is longer than " + BUFFER_SIZE + " bytes.");
+
+                // keep the incomplete line, if any, for the next read.
+                buffer.position(Math.min(lineStart, limit));
+                buffer.limit(limit);
+                buffer.compact();
+            }
+            if (!batch.isEmpty())
+                listener.batchImported(batch, bytesRead, totalBytes);
+            return count;
+        }
+    }
+
+    /**
+     * turns the bytes of one line into a HexItem.
+     * @param bytes - the buffer holding the line
+     * @param start - the index of the first byte of the line
+     * @param end - the index just past the last byte of the line (not counting the '\n')
+     * @param lineNumber - which line this is, for error messages
+     * @return - the hex, or null if the line is blank
+     * @throws IOException - if the line isn't in "letter,rrggbb" form
+     */
+    private static HexItem decodeLine(byte[] bytes, int start, int end, long lineNumber) throws IOException
+    {
+        // ignore trailing whitespace (including the '\r' of Windows line endings).
+        while (end > start && (bytes[end - 1] == '\r' || bytes[end - 1] == ' ' || bytes[end - 1] == '\t'))
+            end--;
+        if (end == start)
+            return null;
+
+        int i = start;
+        String letter = LETTERS[bytes[i++] & 0xFF];
+        if (i >= end || bytes[i++] != ',')
+            throw new IOException("Line " + lineNumber + ": expected \"letter,rrggbb\".");
+        if (i < end && bytes[i] == '#')
+            i++;
+        if (end - i != 6)
+            throw new IOException("Line " + lineNumber + ": the color should be six hex digits.");
+        int rgb = 0;
+        for (; i < end; i++)
+        {
+            int digit = Character.digit(bytes[i], 16);
+            if (digit < 0)
+                throw new IOException("Line " + lineNumber + ": '" + (char) (bytes[i] & 0xFF)
+                        + "' is not a hex digit.");
+            rgb = (rgb << 4) | digit;
+        }
+        return new HexItem(letter, rgb);
+    }
+}
@@ -19,7 +19,8 @@ public class HexItem
 
     // Aaaaaand these are just normal class variables....
     private String myLetter;
-    private Color myColor;
+    private int myRGB; // the color, packed as 0xAARRGGBB. (0 means "no color.")
+    private Color myColor; // the same color as a java.awt.Color - only made the first time somebody asks for it.
     private int myCenterX, myCenterY;
     private int[] myCornerXs, myCornerYs;
 
@@ -29,13 +30,13 @@ public class HexItem
     {
         this();
         this.myLetter = myLetter;
-        this.myColor = myColor;
+        setMyColor(myColor);
     }
 
     public HexItem(Color myColor)
     {
         this();
-        this.myColor = myColor;
+        setMyColor(myColor);
     }
 
     public HexItem(String myLetter)
@@ -44,20 +45,46 @@ public class HexItem
         this.myLetter = myLetter;
     }
 
+    /**
+     * makes a hex with the given letter and color, without picking (and then throwing away) a random letter and color
+     * first. This is the fast way to make lots of hexes, e.g. when HexFileImporter reads them from a file.
+     * @param myLetter - the letter to show
+     * @param rgb - the color, as 0xRRGGBB
+     */
+    public HexItem(String myLetter, int rgb)
+    {
+        setupSingletons();
+        this.myLetter = myLetter;
+        myRGB = 0xFF000000 | rgb;
+        myCornerXs = new int[6];
+        myCornerYs = new int[6];
+    }
+
     public HexItem()
     {
         setupSingletons();
         // sneaky way of picking a random capitol letter....
         int randNum = (int)(Math.random()*26);
         myLetter = String.valueOf((char)('A'+randNum));
-        myColor = new Color((float)(0.5+0.5*Math.random()),
-                            (float)(0.5+0.5*Math.random()),
-                            (float)( 0.5+0.5*Math.random()));
+        // pick a random light color. We just store the numbers for now - building a java.awt.Color object loads the
+        //    whole AWT library, which programs that never draw (like CollectionDemoCLI) shouldn't have to wait for.
+        myRGB = 0xFF000000 | (randomLightComponent() << 16)
+                           | (randomLightComponent() << 8)
+                           |  randomLightComponent();
         myCornerXs = new int[6];
         myCornerYs = new int[6];
 
     }
 
+    /**
+     * @return - a random color component between 128 and 255, rounded the same way new Color(float, float, float)
+     * would round it.
+     */
+    private static int randomLightComponent()
+    {
+        return (int)((float)(0.5+0.5*Math.random()) * 255 + 0.5);
+    }
+
     /**
      * updates the location of this hex's center and the vertices
      * of the hex shape to the given (x,y).
@@ -95,12 +122,15 @@ public class HexItem
     public void drawSelf(Graphics g)
     {
         // draw the hex (filled with black outline)
-        g.setColor(myColor);
+        g.setColor(getMyColor());
         g.fillPolygon(myCornerXs, myCornerYs, 6);
         g.setColor(Color.BLACK);
         g.drawPolygon(myCornerXs, myCornerYs, 6);
 
-        // draw the letter, centered
+        // draw the letter, centered. (The font is only made the first time a hex is drawn, so that HexItems can be
+        //    created by programs that never draw anything without loading the font machinery.)
+        if (HexItemFont == null)
+            HexItemFont = new Font("Helvetica",Font.BOLD, FONT_SIZE);
         g.setFont(HexItemFont);
         int width = g.getFontMetrics().stringWidth(myLetter);
         g.drawString(myLetter, myCenterX-width/2, myCenterY + FONT_SIZE/2);
@@ -117,12 +147,19 @@ public class HexItem
      */
     public void setupSingletons()
     {
+        setupDeltas();
+    }
 
+    /**
+     * does the work for setupSingletons(). (This is static, so that hexagonContains() can use it before any HexItems
+     * have been made.)
+     */
+    private static void setupDeltas()
+    {
         if (deltaXs == null)
         {
             deltaXs = new int[6];
             deltaYs = new int[6];
-            HexItemFont = new Font("Helvetica",Font.BOLD, FONT_SIZE);
             for (int i = 0; i < 6; i++)
             {
                 double angle = i * (Math.PI/3);
@@ -132,9 +169,33 @@ public class HexItem
         }
     }
 
+    /**
+     * tells whether a point is inside the hexagon that drawSelf() draws - exactly, not just inside its bounding box.
+     * @param dx - how far the point is to the right of the hex's center
+     * @param dy - how far the point is below the hex's center
+     * @return - whether the point is inside (or on the edge of) the hexagon
+     */
+    public static boolean hexagonContains(int dx, int dy)
+    {
+        setupDeltas();
+        // the hexagon is convex, so the point is inside if it is on the same side of all six edges. The cross product
+        //    of each edge with the line from the edge's start to the point tells us which side that is.
+        boolean anyPositive = false, anyNegative = false;
+        for (int i = 0; i < 6; i++)
+        {
+            int j = (i + 1) % 6;
+            int cross = (deltaXs[j] - deltaXs[i]) * (dy - deltaYs[i]) - (deltaYs[j] - deltaYs[i]) * (dx - deltaXs[i]);
+            if (cross > 0)
+                anyPositive = true;
+            else if (cross < 0)
+                anyNegative = true;
+        }
+        return !(anyPositive && anyNegative);
+    }
+
     public String toString()
     {
-        return "["+myLetter+"\t"+myColor.toString()+"]";
+        return "["+myLetter+"\t"+getMyColor()+"]";
     }
 
     @Override
@@ -146,7 +207,8 @@ public class HexItem
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         HexItem hexItem = (HexItem) o;
-        return myLetter.equals(hexItem.myLetter) && myColor.equals(hexItem.myColor);
+        // (two Colors are equal exactly when their packed RGB values are, so we can compare those directly.)
+        return myLetter.equals(hexItem.myLetter) && myRGB == hexItem.myRGB;
     }
 
     public String getMyLetter()
@@ -160,6 +222,25 @@ public class HexItem
     }
 
     public Color getMyColor()
+    {
+        if (myColor == null && myRGB != 0)
+            myColor = new Color(myRGB, true);
+        return myColor;
+    }
+
+    /**
+     * @return - this hex's color, packed as 0xAARRGGBB (the same as getMyColor().getRGB()), or 0 if it has no color.
+     *  Unlike getMyColor(), this never needs to make a java.awt.Color.
+     */
+    public int getMyRGB()
+    {
+        return myRGB;
+    }
+
+    /**
+     * @return - the java.awt.Color object this hex is holding, or null if it hasn't needed to make one yet.
+     */
+    public Color getColorIfMade()
     {
         return myColor;
     }
@@ -167,5 +248,6 @@ public class HexItem
     public void setMyColor(Color myColor)
     {
         this.myColor = myColor;
+        myRGB = (myColor == null) ? 0 : myColor.getRGB();
     }
 }
@@ -0,0 +1,463 @@
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estimates how many bytes the collections in this demo keep alive on the heap, using the object header size,
+ * reference size and alignment of the JVM that is actually running. It also estimates what a few alternative
+ * layouts would save, so we can decide which storage mode to use at which scale.
+ *
+ * This class deliberately avoids the Swing toolkit, so it can be run headlessly:
+ *     java HexMemoryReport [numArrayListHexes]
+ */
+public class HexMemoryReport
+{
+    // these describe the layout rules of the running JVM. They are looked up once, the first time they are needed.
+    private static boolean compressedOops = true;
+    private static boolean compressedClassPointers = true;
+    private static int objectAlignment = 8;
+    private static boolean vmSettingsLoaded = false;
+
+    // the number of corners in each HexItem's myCornerXs and myCornerYs arrays.
+    private static final int NUM_CORNERS = 6;
+
+    private final int arrayLength;
+    private final int arrayListSize;
+    private final int arrayListCapacity;
+    private final int numShards;
+    private final boolean capacityIsExact;
+    private final int numDistinctHexes;
+    private final int numDistinctLetters;
+    private final int numDistinctLetterStrings;
+
+    private final long arrayBytes;
+    private final long arrayListBytes;
+    private final long wrapperBytes;
+    private final long hexItemBytes;
+    private final long letterBytes;
+    private final long colorBytes;
+    private final long cornerBytes;
+
+    /**
+     * measures the given array and list. A HexItem (or String, or Color) that appears more than once - in both
+     * collections, or several times in one - is only counted once, just as the garbage collector would see it.
+     * @param array - the array of hexes (may contain nulls)
+     * @param list - the list of hexes (may contain nulls)
+     * @return - a report describing the retained sizes
+     */
+    public static HexMemoryReport measure(HexItem[] array, List<HexItem> list)
+    {
+        return new HexMemoryReport(array, list);
+    }
+
+    private HexMemoryReport(HexItem[] array, List<HexItem> list)
+    {
+        loadVMSettings();
+
+        // ---------- the containers themselves
+        arrayLength = array.length;
+        arrayBytes = arraySize(refSize(), arrayLength);
+
+        arrayListSize = list.size();
+        long wrappers = 0;
+        while (list instanceof ObservableHexList)
+        {
+            wrappers += observableListSize((ObservableHexList) list);
+            list = ((ObservableHexList) list).getDelegate();
+        }
+        // a ShardedHexList keeps its items in several ArrayLists, so we add those up. It also keeps track of how long
+        //    their backing arrays are, so we don't need to guess.
+        List<ArrayList<HexItem>> backingLists = new ArrayList<ArrayList<HexItem>>();
+        List<Integer> knownCapacities = new ArrayList<Integer>();
+        if (list instanceof ShardedHexList)
+        {
+            ShardedHexList sharded = (ShardedHexList) list;
+            for (int i = 0; i < sharded.getNumShards(); i++)
+            {
+                backingLists.add(sharded.getShardList(i));
+                knownCapacities.add(sharded.getShardCapacity(i));
+            }
+            wrappers += shardedListSize(sharded.getNumShards());
+        }
+        else if (list instanceof ArrayList)
+        {
+            backingLists.add((ArrayList<HexItem>) list);
+            knownCapacities.add(exactCapacity((ArrayList<HexItem>) list));
+        }
+        numShards = backingLists.size();
+        wrapperBytes = wrappers;
+
+        int totalCapacity = 0;
+        long listBytes = 0;
+        boolean allExact = true;
+        for (int i = 0; i < backingLists.size(); i++)
+        {
+            int capacity = knownCapacities.get(i);
+            if (capacity < 0)
+            {
+                allExact = false;
+                capacity = estimatedCapacity(backingLists.get(i).size());
+            }
+            totalCapacity += capacity;
+            // ArrayList has int modCount, int size and a reference to its backing array.
+            listBytes += objectSize(4 + 4 + refSize()) + arraySize(refSize(), capacity);
+        }
+        if (backingLists.isEmpty())
+        {
+            // some other kind of list - we don't know its layout, so just count one reference per item.
+            totalCapacity = arrayListSize;
+            listBytes = arraySize(refSize(), arrayListSize);
+        }
+        arrayListCapacity = totalCapacity;
+        capacityIsExact = allExact;
+        arrayListBytes = listBytes;
+
+        // ---------- the things the containers point to
+        Map<HexItem, Boolean> hexes = new IdentityHashMap<HexItem, Boolean>();
+        for (HexItem h : array)
+            if (h != null)
+                hexes.put(h, Boolean.TRUE);
+        for (HexItem h : list)
+            if (h != null)
+                hexes.put(h, Boolean.TRUE);
+        numDistinctHexes = hexes.size();
+
+        Map<String, Boolean> letterStrings = new IdentityHashMap<String, Boolean>();
+        Map<String, Boolean> letters = new HashMap<String, Boolean>();
+        Map<Color, Boolean> colors = new IdentityHashMap<Color, Boolean>();
+        long lettersTotal = 0;
+        long colorsTotal = 0;
+        for (HexItem h : hexes.keySet())
+        {
+            String letter = h.getMyLetter();
+            if (letter != null && letterStrings.put(letter, Boolean.TRUE) == null)
+            {
+                lettersTotal += stringSize(letter);
+                letters.put(letter, Boolean.TRUE);
+            }
+            Color c = h.getColorIfMade();
+            if (c != null && colors.put(c, Boolean.TRUE) == null)
+                colorsTotal += colorSize(c);
+        }
+        numDistinctLetterStrings = letterStrings.size();
+        numDistinctLetters = letters.size();
+        letterBytes = lettersTotal;
+        colorBytes = colorsTotal;
+        hexItemBytes = numDistinctHexes * hexItemShallowSize(true);
+        cornerBytes = numDistinctHexes * 2L * arraySize(4, NUM_CORNERS);
+    }
+
+    //----------------------------------------- JVM layout rules
+
+    /**
+     * asks the HotSpot diagnostic bean how this JVM lays out objects. If we are running on a JVM that doesn't have
+     * one, we keep the defaults for a 64-bit JVM with a heap under 32 GB.
+     */
+    private static synchronized void loadVMSettings()
+    {
+        if (vmSettingsLoaded)
+            return;
+        vmSettingsLoaded = true;
+        try
+        {
+            com.sun.management.HotSpotDiagnosticMXBean bean =
+                    ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class);
+            compressedOops = Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+            compressedClassPointers = Boolean.parseBoolean(bean.getVMOption("UseCompressedClassPointers").getValue());
+            objectAlignment = Integer.parseInt(bean.getVMOption("ObjectAlignmentInBytes").getValue());
+        }
+        catch (RuntimeException | LinkageError exp)
+        {
+            // not a HotSpot JVM (or the option doesn't exist) - stick with the defaults.
+        }
+    }
+
+    private static int refSize()
+    {
+        return compressedOops ? 4 : 8;
+    }
+
+    private static int headerSize()
+    {
+        return compressedClassPointers ? 12 : 16;
+    }
+
+    private static long align(long bytes)
+    {
+        return (bytes + objectAlignment - 1) / objectAlignment * objectAlignment;
+    }
+
+    /**
+     * @param fieldBytes - the total size of the instance fields
+     * @return - the size of a plain object with those fields, including its header and padding
+     */
+    private static long objectSize(long fieldBytes)
+    {
+        return align(headerSize() + fieldBytes);
+    }
+
+    /**
+     * @param elementBytes - the size of one element (4 for an int, refSize() for an object, etc.)
+     * @param length - the number of elements
+     * @return - the size of the array, including its header, length field and padding
+     */
+    private static long arraySize(int elementBytes, long length)
+    {
+        long base = headerSize() + 4; // the header is followed by an int holding the length
+        if (elementBytes == 8)
+            base = (base + 7) / 8 * 8; // 8-byte elements start on an 8-byte boundary
+        return align(base + elementBytes * length);
+    }
+
+    //----------------------------------------- sizes of the things we store
+
+    /**
+     * @param withCorners - whether to include the myCornerXs/myCornerYs references (false is the "shared corners"
+     *                    alternative layout)
+     * @return - the size of one HexItem object, not counting anything it points to
+     */
+    private static long hexItemShallowSize(boolean withCorners)
+    {
+        // myLetter, myRGB, myColor, myCenterX, myCenterY (and myCornerXs, myCornerYs)
+        long fields = 2L * refSize() + 4 + 4 + 4;
+        if (withCorners)
+            fields += 2L * refSize();
+        return objectSize(fields);
+    }
+
+    /**
+     * @param s - the string to measure
+     * @return - the size of the String object plus its byte[] of characters (compact strings are assumed, as is the
+     * default since Java 9)
+     */
+    private static long stringSize(String s)
+    {
+        boolean latin1 = true;
+        for (int i = 0; i < s.length(); i++)
+            if (s.charAt(i) > 0xFF)
+            {
+                latin1 = false;
+                break;
+            }
+        // byte[] value, int hash, byte coder, boolean hashIsZero
+        long shell = objectSize(refSize() + 4 + 1 + 1);
+        return shell + arraySize(1, latin1 ? s.length() : 2L * s.length());
+    }
+
+    /**
+     * @param c - the color to measure
+     * @return - the size of the Color object plus the float[] component arrays it holds, if any
+     */
+    private static long colorSize(Color c)
+    {
+        // int value, float[] frgbvalue, float[] fvalue, float falpha, ColorSpace cs
+        long total = objectSize(4 + 3L * refSize() + 4);
+        if (hasFloatComponents(c))
+            total += 2 * arraySize(4, 3);
+        return total;
+    }
+
+    /**
+     * Colors built from floats (as a JColorChooser may make) keep two float[3] arrays; Colors built from an int (as
+     * HexItem makes them) don't. We can only see which kind this is by peeking at a private field, which the module
+     * system may forbid - in that case we assume HexItem made it.
+     * @param c - the color to check
+     * @return - whether c holds float component arrays
+     */
+    private static boolean hasFloatComponents(Color c)
+    {
+        try
+        {
+            Field f = Color.class.getDeclaredField("frgbvalue");
+            f.setAccessible(true);
+            return f.get(c) != null;
+        }
+        catch (ReflectiveOperationException | RuntimeException exp)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @param list - the list to check
+     * @return - the length of the list's backing array, or -1 if we aren't allowed to look at it. (Since Java 16 we
+     * aren't, unless the JVM was started with --add-opens java.base/java.util=ALL-UNNAMED.)
+     */
+    private static int exactCapacity(ArrayList<HexItem> list)
+    {
+        try
+        {
+            Field f = ArrayList.class.getDeclaredField("elementData");
+            f.setAccessible(true);
+            return ((Object[]) f.get(list)).length;
+        }
+        catch (ReflectiveOperationException | RuntimeException exp)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * replays ArrayList's growth policy (start at 10, then grow by half) to guess the capacity of a list that was
+     * filled one add() at a time. (If it was since shrunk by removes or clear(), the real capacity is larger.)
+     * @param size - the number of items in the list
+     * @return - the estimated length of the backing array
+     */
+    private static int estimatedCapacity(int size)
+    {
+        if (size == 0)
+            return 0;
+        long capacity = 10;
+        while (capacity < size)
+            capacity += capacity >> 1;
+        return (int) Math.min(capacity, Integer.MAX_VALUE - 8);
+    }
+
+    /**
+     * @param list - the list to measure
+     * @return - the size of an ObservableHexList itself and its CopyOnWriteArrayList of listeners, not counting the
+     * list it wraps or the listeners themselves
+     */
+    private static long observableListSize(ObservableHexList list)
+    {
+        // int modCount, List delegate, List listeners
+        long total = objectSize(4 + 2L * refSize());
+        // a CopyOnWriteArrayList has a lock Object and an array of its items.
+        total += objectSize(2L * refSize()) + objectSize(0) + arraySize(refSize(), list.getNumListeners());
+        return total;
+    }
+
+    /**
+     * @param numShards - how many shards the list has
+     * @return - the size of a ShardedHexList's own bookkeeping - its arrays of shards, capacities and locks, its
+     * prefix-count tree and its read/write lock - not counting the ArrayLists that hold the items
+     */
+    private static long shardedListSize(int numShards)
+    {
+        // the lock's "sync" object: AbstractQueuedSynchronizer's int state and head, tail and owner-thread references
+        long syncBytes = objectSize(4 + 3L * refSize());
+
+        // int modCount, and references to the shards, capacities, locks, size tree and read/write lock
+        long total = objectSize(4 + 5L * refSize());
+        total += arraySize(refSize(), numShards) + arraySize(4, numShards);
+        // one ReentrantLock per shard, each holding its sync object
+        total += arraySize(refSize(), numShards) + numShards * (objectSize(refSize()) + syncBytes);
+        // an AtomicIntegerArray around an int[] of numShards + 1
+        total += objectSize(refSize()) + arraySize(4, numShards + 1);
+        // a ReentrantReadWriteLock holds a read lock, a write lock and a sync object, which also keeps track of the
+        //    readers (a hold-count ThreadLocal, the cached counter and first reader, and the first reader's count).
+        total += objectSize(3L * refSize()) + 2 * objectSize(refSize());
+        total += objectSize(4 + 3L * refSize() + 3L * refSize() + 4) + objectSize(4);
+        return total;
+    }
+
+    //----------------------------------------- the report
+
+    /**
+     * @return - the total number of bytes kept alive by both collections and everything they hold
+     */
+    public long getTotalBytes()
+    {
+        return arrayBytes + arrayListBytes + wrapperBytes + hexItemBytes + letterBytes + colorBytes + cornerBytes;
+    }
+
+    /**
+     * @return - the bytes of the ArrayList's backing array(s) that are reserved but not holding anything
+     */
+    public long getUnusedCapacityBytes()
+    {
+        return (long) (arrayListCapacity - arrayListSize) * refSize();
+    }
+
+    /**
+     * @return - what dropping each HexItem's own corner arrays (and computing the corners from the shared
+     * deltaXs/deltaYs when drawing) would save
+     */
+    public long getSharedCornersSavings()
+    {
+        return cornerBytes + numDistinctHexes * (hexItemShallowSize(true) - hexItemShallowSize(false));
+    }
+
+    /**
+     * @return - what sharing one String per distinct letter (instead of one per HexItem) would save
+     */
+    public long getInternedLettersSavings()
+    {
+        if (numDistinctLetterStrings == 0)
+            return 0;
+        return letterBytes - letterBytes / numDistinctLetterStrings * numDistinctLetters;
+    }
+
+    /**
+     * @return - what storing each slot as a char (the letter) and an int (the rgb color) in two parallel primitive
+     * arrays would save, compared to the array and ArrayList of HexItems. This is negative when the same hexes fill
+     * many slots, because the packed arrays would need a copy of the letter and color in every slot.
+     */
+    public long getPackedArraysSavings()
+    {
+        long slots = (long) arrayLength + arrayListSize;
+        long packed = arraySize(2, slots) + arraySize(4, slots);
+        return getTotalBytes() - packed;
+    }
+
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("JVM layout: compressed oops %s, compressed class pointers %s, %d-byte alignment%n",
+                compressedOops ? "on" : "off", compressedClassPointers ? "on" : "off", objectAlignment));
+        sb.append(String.format("  object header %d bytes, reference %d bytes%n%n", headerSize(), refSize()));
+
+        sb.append(String.format("arrayOfHexes       %,14d bytes  (%,d slots)%n", arrayBytes, arrayLength));
+        sb.append(String.format("arrayListOfHexes   %,14d bytes  (%,d items, capacity %,d%s%s)%n", arrayListBytes,
+                arrayListSize, arrayListCapacity, capacityIsExact ? "" : " estimated",
+                (numShards > 1) ? " in " + numShards + " shards" : ""));
+        if (wrapperBytes > 0)
+            sb.append(String.format("  list wrappers    %,14d bytes  (locks, shard sizes, listeners)%n", wrapperBytes));
+        sb.append(String.format("HexItem objects    %,14d bytes  (%,d distinct)%n", hexItemBytes, numDistinctHexes));
+        sb.append(String.format("  letter Strings   %,14d bytes  (%,d distinct objects)%n", letterBytes,
+                numDistinctLetterStrings));
+        sb.append(String.format("  Colors           %,14d bytes  (only those made so far)%n", colorBytes));
+        sb.append(String.format("  corner arrays    %,14d bytes%n", cornerBytes));
+        sb.append(String.format("total retained     %,14d bytes%n%n", getTotalBytes()));
+
+        sb.append(String.format("Estimated savings from alternative layouts:%n"));
+        sb.append(String.format("  trimToSize() the ArrayList        %,14d bytes%n", getUnusedCapacityBytes()));
+        sb.append(String.format("  shared corner arrays              %,14d bytes%n", getSharedCornersSavings()));
+        sb.append(String.format("  one String per distinct letter    %,14d bytes%n", getInternedLettersSavings()));
+        long packedSavings = getPackedArraysSavings();
+        if (packedSavings >= 0)
+            sb.append(String.format("  packed char[] + int[] per slot    %,14d bytes%n", packedSavings));
+        else
+            sb.append(String.format("  packed char[] + int[] per slot    %,14d bytes MORE (the hexes are shared)%n",
+                    -packedSavings));
+        if (!capacityIsExact)
+            sb.append(String.format("%nThe ArrayList's capacity is estimated from its size, so it misses any room left"
+                    + " over after removes or clear().%nFor the exact capacity, run java with"
+                    + " --add-opens java.base/java.util=ALL-UNNAMED%n"));
+        return sb.toString();
+    }
+
+    /**
+     * prints a report for a 25-slot array and an ArrayList of the given size, both full of random hexes - without
+     * starting the GUI.
+     * @param args - optionally, the number of hexes to put in the ArrayList (default 25)
+     */
+    public static void main(String[] args)
+    {
+        int n = 25;
+        if (args.length > 0)
+            n = Integer.parseInt(args[0]);
+        HexItem[] array = new HexItem[25];
+        for (int i = 0; i < array.length; i++)
+            array[i] = new HexItem();
+        ArrayList<HexItem> list = new ArrayList<HexItem>();
+        for (int i = 0; i < n; i++)
+            list.add(new HexItem());
+        System.out.print(measure(array, list));
+    }
+}
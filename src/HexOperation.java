@@ -0,0 +1,236 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The collection operations from CollectionDemoPanel, written directly against a HexItem[] and a List of HexItems so
+ * that they can be run (and timed) without building any of the GUI.
+ *
+ * Each operation is named after the CollectionDemoPanel method it mirrors, and does what that method's comment says.
+ * It also knows how its running time should grow with the size of the collection, so ComplexityProfiler can check.
+ */
+public enum HexOperation
+{
+    ARRAY_GET_HEX_AT_INDEX("ArrayGetHexAtIndex", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return array[index];
+        }
+    },
+    ARRAY_SET_HEX_AT_INDEX("ArraySetHexAtIndex", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            array[index] = h;
+            return null;
+        }
+    },
+    ARRAY_GET_NUM_HEXES("ArrayGetNumHexes", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return array.length;
+        }
+    },
+    ARRAY_REMOVE_ALL_HEXES("ArrayRemoveAllHexes", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            Arrays.fill(array, null);
+            return null;
+        }
+    },
+    ARRAY_INSERT_HEX_AT_INDEX("ArrayInsertHexAtIndex", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            // shift everything from index on forward one space - the last item falls off the end.
+            System.arraycopy(array, index, array, index + 1, array.length - index - 1);
+            array[index] = h;
+            return null;
+        }
+    },
+    ARRAY_REMOVE_HEX_AT_INDEX("ArrayRemoveHexAtIndex", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            array[index] = null;
+            return null;
+        }
+    },
+    ARRAY_REMOVE_HEX_AT_INDEX_AND_SHIFT("ArrayRemoveHexAtIndexAndShift", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            System.arraycopy(array, index + 1, array, index, array.length - index - 1);
+            array[array.length - 1] = null;
+            return null;
+        }
+    },
+    AL_GET_HEX_AT_INDEX("ALGetHexAtIndex", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.get(index);
+        }
+    },
+    AL_SET_HEX_AT_INDEX("ALSetHexAtIndex", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.set(index, h);
+        }
+    },
+    AL_GET_NUM_HEXES("ALGetNumHexes", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.size();
+        }
+    },
+    AL_REMOVE_ALL_HEXES("ALRemoveAllHexes", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            list.clear();
+            return null;
+        }
+    },
+    AL_ADD_HEX_TO_END("ALAddHexToEnd", Complexity.CONSTANT)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.add(h);
+        }
+    },
+    AL_INSERT_HEX_AT_LOCATION("ALInsertHexAtLocation", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            list.add(index, h);
+            return null;
+        }
+    },
+    AL_REMOVE_HEX_AT_LOCATION("ALRemoveHexAtLocation", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.remove(index);
+        }
+    },
+    AL_CONTAINS("ALContains", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.contains(h);
+        }
+    },
+    AL_INDEX_OF("ALIndexOf", Complexity.LINEAR)
+    {
+        public Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h)
+        {
+            return list.indexOf(h);
+        }
+    };
+
+    private final String methodName;
+    private final Complexity expectedComplexity;
+
+    HexOperation(String methodName, Complexity expectedComplexity)
+    {
+        this.methodName = methodName;
+        this.expectedComplexity = expectedComplexity;
+    }
+
+    /**
+     * performs this operation.
+     * @param array - the array of hexes
+     * @param list - the list of hexes
+     * @param index - the index to use, if this operation needs one
+     * @param h - the HexItem to use, if this operation needs one
+     * @return - whatever the corresponding CollectionDemoPanel method would return (or something derived from it), so
+     * callers can keep the JIT from optimizing the call away.
+     */
+    public abstract Object apply(HexItem[] array, List<HexItem> list, int index, HexItem h);
+
+    /**
+     * @return - the name of the CollectionDemoPanel method this operation mirrors
+     */
+    public String getMethodName()
+    {
+        return methodName;
+    }
+
+    /**
+     * @return - how this operation's running time should grow with the size of the collection, at worst. (For
+     * ALAddHexToEnd that is the amortized cost - every so often the list has to grow its backing array.)
+     */
+    public Complexity getExpectedComplexity()
+    {
+        return expectedComplexity;
+    }
+
+    /**
+     * @return - whether this operation works on the array (as opposed to the list)
+     */
+    public boolean isArrayOperation()
+    {
+        return methodName.startsWith("Array");
+    }
+
+    /**
+     * @param array - the array of hexes
+     * @param list - the list of hexes
+     * @return - one more than the largest index this operation can currently be given. Operations that ignore the
+     * index report 1, so that index 0 is always acceptable.
+     */
+    public int getIndexLimit(HexItem[] array, List<HexItem> list)
+    {
+        switch (this)
+        {
+            case ARRAY_GET_NUM_HEXES:
+            case ARRAY_REMOVE_ALL_HEXES:
+            case AL_GET_NUM_HEXES:
+            case AL_REMOVE_ALL_HEXES:
+            case AL_ADD_HEX_TO_END:
+            case AL_CONTAINS:
+            case AL_INDEX_OF:
+                return 1;
+            case AL_INSERT_HEX_AT_LOCATION:
+                return list.size() + 1; // inserting at size() is the same as adding to the end.
+            default:
+                return isArrayOperation() ? array.length : list.size();
+        }
+    }
+
+    /**
+     * @return - how much getIndexLimit() goes up (or down) after each call of this operation - so a run of calls can
+     * have all its indices picked before any of them is made.
+     */
+    public int getIndexLimitChange()
+    {
+        switch (this)
+        {
+            case AL_INSERT_HEX_AT_LOCATION:
+                return 1;
+            case AL_REMOVE_HEX_AT_LOCATION:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * finds the operation for the given CollectionDemoPanel method name.
+     * @param methodName - e.g. "ALInsertHexAtLocation" (case doesn't matter)
+     * @return - the matching operation
+     * @throws IllegalArgumentException if there is no such operation
+     */
+    public static HexOperation forMethodName(String methodName)
+    {
+        for (HexOperation op : values())
+            if (op.methodName.equalsIgnoreCase(methodName))
+                return op;
+        throw new IllegalArgumentException("Unknown operation: " + methodName);
+    }
+}
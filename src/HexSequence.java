@@ -0,0 +1,64 @@
+/**
+ * An ordered sequence of HexItems (nulls allowed), indexed from 0 - the handful of operations the demo needs from a
+ * collection. Each implementation stores the hexes a different way, so they can be compared side by side.
+ */
+public interface HexSequence
+{
+    /**
+     * @return - a short name for this way of storing hexes, e.g. "ArrayList"
+     */
+    String getName();
+
+    /**
+     * @return - how many hexes are in the sequence
+     */
+    int size();
+
+    /**
+     * @param index - where to look (0 <= index < size())
+     * @return - the hex at that index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    HexItem get(int index);
+
+    /**
+     * replaces the hex at the given index.
+     * @param index - where to put it (0 <= index < size())
+     * @param h - the new hex
+     * @return - the hex that used to be there
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    HexItem set(int index, HexItem h);
+
+    /**
+     * puts the hex at the given index, moving the hexes from that index on back one space.
+     * @param index - where to insert it (0 <= index <= size())
+     * @param h - the hex to insert
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    void insert(int index, HexItem h);
+
+    /**
+     * takes out the hex at the given index, moving the hexes after it forward one space.
+     * @param index - which hex to remove (0 <= index < size())
+     * @return - the hex that was removed
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    HexItem remove(int index);
+
+    /**
+     * removes all the hexes.
+     */
+    void clear();
+
+    /**
+     * @param h - the hex to look for
+     * @return - the index of the first hex equal to h, or -1 if there isn't one
+     */
+    int indexOf(HexItem h);
+
+    /**
+     * @return - a new sequence of the same kind holding the same hexes, which can be changed without changing this one
+     */
+    HexSequence copy();
+}
@@ -0,0 +1,325 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Shows several HexSequences, one row each, all holding the same hexes in different ways. A command can be run on one
+ * of them or on all of them at once; each row shows how long its last command took, so the different ways of storing
+ * hexes can be compared on the same data.
+ *
+ * A single call is too quick to time reliably - and the first call of each sequence's code runs slowly, before the JIT
+ * has compiled it - so each command is timed several times (see runCommand()) and the median is shown.
+ */
+public class HexSequencePanel extends JPanel
+{
+    /**
+     * the things you can ask a HexSequence to do.
+     */
+    public enum Command
+    {
+        GET("get"), SET("set"), SIZE("size"), INSERT("insert"), ADD_TO_END("add to end"), REMOVE("remove"),
+        CLEAR("clear"), INDEX_OF("indexOf");
+
+        private final String label;
+
+        Command(String label)
+        {
+            this.label = label;
+        }
+
+        /**
+         * runs this command on the given sequence.
+         * @param seq - the sequence
+         * @param index - the index to use, if this command needs one
+         * @param h - the hex to use, if this command needs one
+         * @return - the hex (for get, set and remove), the number (for size and indexOf), or null
+         */
+        public Object apply(HexSequence seq, int index, HexItem h)
+        {
+            switch (this)
+            {
+                case GET:
+                    return seq.get(index);
+                case SET:
+                    return seq.set(index, h);
+                case SIZE:
+                    return seq.size();
+                case INSERT:
+                    seq.insert(index, h);
+                    return null;
+                case ADD_TO_END:
+                    seq.insert(seq.size(), h);
+                    return null;
+                case REMOVE:
+                    return seq.remove(index);
+                case CLEAR:
+                    seq.clear();
+                    return null;
+                default:
+                    return seq.indexOf(h);
+            }
+        }
+
+        /**
+         * puts the sequence back the way it was before apply(), so the command can be timed again on the same contents.
+         * (There's no quick way to undo CLEAR, so that one is timed on copies instead - see workingCopy().)
+         * @param seq - the sequence the command was applied to
+         * @param index - the index it was given
+         * @param h - the hex it was given
+         * @param result - what apply() returned
+         */
+        public void undo(HexSequence seq, int index, HexItem h, Object result)
+        {
+            switch (this)
+            {
+                case SET:
+                    seq.set(index, (HexItem) result);
+                    break;
+                case INSERT:
+                    seq.remove(index);
+                    break;
+                case ADD_TO_END:
+                    seq.remove(seq.size() - 1);
+                    break;
+                case REMOVE:
+                    seq.insert(index, (HexItem) result);
+                    break;
+            }
+        }
+
+        public String toString()
+        {
+            return label;
+        }
+    }
+
+    // how many times each command is timed on each sequence (after one untimed warm-up call); we show the median.
+    private static final int TIMED_RUNS = 9;
+
+    // layout of each row: the name and latency on the left, then as many hexes as fit.
+    private static final int ROW_HEIGHT = 50;
+    private static final int FIRST_ROW_Y = 35;
+    private static final int LABEL_WIDTH = 200;
+    private static final int SPACING_X = 30;
+
+    private final List<HexSequence> sequences = new ArrayList<HexSequence>();
+    private final long[] lastNanos;
+    private final String[] lastErrors;
+    private int selectedSequence = 0;
+    private Font labelFont;
+
+    public HexSequencePanel()
+    {
+        super();
+        labelFont = new Font("Courier", Font.PLAIN, 12);
+        sequences.add(new ArrayHexSequence());
+        sequences.add(new ListHexSequence("ArrayList", ArrayList::new));
+        sequences.add(new ListHexSequence("LinkedList", LinkedList::new));
+        sequences.add(new RingBufferHexSequence());
+        sequences.add(new ChunkedHexSequence());
+        sequences.add(new ListHexSequence("ShardedHexList", ShardedHexList::new));
+        lastNanos = new long[sequences.size()];
+        lastErrors = new String[sequences.size()];
+        setPreferredSize(new Dimension(800, FIRST_ROW_Y + ROW_HEIGHT * sequences.size()));
+
+        // start them all off with the same few hexes, so there is something to see.
+        List<HexItem> starters = new ArrayList<HexItem>();
+        for (int i = 0; i < 5; i++)
+            starters.add(new HexItem());
+        loadAll(starters);
+    }
+
+    /**
+     * @return - the names of the sequences, in the order of their rows
+     */
+    public String[] getSequenceNames()
+    {
+        String[] names = new String[sequences.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = sequences.get(i).getName();
+        return names;
+    }
+
+    /**
+     * @param which - the row number
+     * @return - the median time of the last command on that sequence, in nanoseconds
+     */
+    public long getLastNanos(int which)
+    {
+        return lastNanos[which];
+    }
+
+    /**
+     * chooses which sequence runCommand() uses when it isn't comparing them all. (Its row is highlighted.)
+     * @param which - the row number
+     */
+    public void setSelectedSequence(int which)
+    {
+        selectedSequence = which;
+        repaint();
+    }
+
+    /**
+     * replaces the contents of every sequence with the given hexes - for instance, the ArrayList of the main panel
+     * after importing a file - so they can be compared on real data.
+     * @param hexes - the hexes to copy
+     */
+    public void loadAll(List<HexItem> hexes)
+    {
+        for (int i = 0; i < sequences.size(); i++)
+        {
+            HexSequence seq = sequences.get(i);
+            long start = System.nanoTime();
+            seq.clear();
+            for (HexItem h : hexes)
+                seq.insert(seq.size(), h);
+            lastNanos[i] = System.nanoTime() - start;
+            lastErrors[i] = null;
+        }
+        repaint();
+    }
+
+    /**
+     * runs a command on the selected sequence, or on all of them, timing each one.
+     *
+     * Each sequence first gets one untimed warm-up call, and then TIMED_RUNS timed ones, and its row shows the median.
+     * The runs are on the sequence itself, and a command that changes it is undone (untimed) after each run, so every
+     * run starts from the same contents - including the spare room an ArrayList has at its end, which a copy wouldn't
+     * have. (CLEAR can't be undone, so it is timed on copies.) Only after the timing is the command run for real.
+     * When comparing, the sequences take turns - one run each, starting with a different one every round - so none of
+     * them always goes first.
+     * @param command - what to do
+     * @param compareAll - true to run it on every sequence, false for just the selected one
+     * @param index - the index to use, if the command needs one
+     * @param h - the hex to use, if the command needs one
+     * @return - the result from the selected sequence
+     * @throws RuntimeException - whatever the selected sequence threw, if it did. (When comparing, the other
+     *                            sequences' exceptions are just shown in their rows.)
+     */
+    public Object runCommand(Command command, boolean compareAll, int index, HexItem h)
+    {
+        int numSequences = sequences.size();
+        boolean[] running = new boolean[numSequences];
+        for (int i = 0; i < numSequences; i++)
+        {
+            running[i] = compareAll || i == selectedSequence;
+            if (running[i])
+                lastErrors[i] = null;
+        }
+
+        // ---------- the warm-up round, which also finds out which sequences throw. (They throw every time, so there's
+        //    no point timing them.)
+        for (int i = 0; i < numSequences; i++)
+            if (running[i])
+            {
+                try
+                {
+                    HexSequence seq = workingCopy(command, i);
+                    command.undo(seq, index, h, command.apply(seq, index, h));
+                }
+                catch (RuntimeException exp)
+                {
+                    running[i] = false;
+                    lastErrors[i] = exp.getClass().getSimpleName();
+                }
+            }
+
+        // ---------- the timed rounds
+        long[][] samples = new long[numSequences][TIMED_RUNS];
+        for (int run = 0; run < TIMED_RUNS; run++)
+            for (int k = 0; k < numSequences; k++)
+            {
+                int i = (run + k) % numSequences;
+                if (!running[i])
+                    continue;
+                HexSequence seq = workingCopy(command, i);
+                long start = System.nanoTime();
+                Object r = command.apply(seq, index, h);
+                samples[i][run] = System.nanoTime() - start;
+                command.undo(seq, index, h, r);
+            }
+        for (int i = 0; i < numSequences; i++)
+            if (running[i])
+            {
+                Arrays.sort(samples[i]);
+                lastNanos[i] = samples[i][TIMED_RUNS / 2];
+            }
+
+        // ---------- and finally, the real thing.
+        Object result = null;
+        RuntimeException selectedException = null;
+        for (int i = 0; i < numSequences; i++)
+        {
+            if (!compareAll && i != selectedSequence)
+                continue;
+            try
+            {
+                Object r = command.apply(sequences.get(i), index, h);
+                if (i == selectedSequence)
+                    result = r;
+            }
+            catch (RuntimeException exp)
+            {
+                lastErrors[i] = exp.getClass().getSimpleName();
+                if (i == selectedSequence)
+                    selectedException = exp;
+            }
+        }
+        repaint();
+        if (selectedException != null)
+            throw selectedException;
+        return result;
+    }
+
+    /**
+     * @param command - the command about to be timed
+     * @param i - which sequence
+     * @return - a copy of the sequence for CLEAR, which can't be undone, or else the sequence itself
+     */
+    private HexSequence workingCopy(Command command, int i)
+    {
+        return (command == Command.CLEAR) ? sequences.get(i).copy() : sequences.get(i);
+    }
+
+    public void paintComponent(Graphics g)
+    {
+        super.paintComponent(g);
+        int numHexesThatFit = Math.max(0, (getWidth() - LABEL_WIDTH - SPACING_X / 2) / SPACING_X);
+        for (int row = 0; row < sequences.size(); row++)
+        {
+            HexSequence seq = sequences.get(row);
+            int y = FIRST_ROW_Y + ROW_HEIGHT * row;
+
+            // ---------- the name, size and latency
+            g.setFont(labelFont);
+            g.setColor(row == selectedSequence ? Color.BLUE : Color.BLACK);
+            g.drawString(seq.getName() + " (" + seq.size() + ")", 10, y - 4);
+            if (lastErrors[row] != null)
+            {
+                g.setColor(Color.RED);
+                g.drawString(lastErrors[row], 10, y + 12);
+            }
+            else
+                g.drawString(String.format("%,.1f µs", lastNanos[row] / 1000.0), 10, y + 12);
+
+            // ---------- the first few hexes. (We only draw what fits, so a LinkedList of a million is still quick.)
+            int numToDraw = Math.min(seq.size(), numHexesThatFit);
+            for (int i = 0; i < numToDraw; i++)
+            {
+                HexItem h = seq.get(i);
+                int x = LABEL_WIDTH + SPACING_X * i;
+                if (h != null)
+                    h.drawSelfAt(x, y, g);
+                else
+                {
+                    g.setColor(Color.BLACK);
+                    g.setFont(labelFont);
+                    g.drawString("null", x - 12, y + 5);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A HexSequence that keeps its hexes in a java.util.List - e.g. an ArrayList, a LinkedList or a ShardedHexList.
+ */
+public class ListHexSequence implements HexSequence
+{
+    private final String name;
+    private final Supplier<List<HexItem>> listMaker;
+    private final List<HexItem> list;
+
+    /**
+     * @param name - what to call this sequence
+     * @param listMaker - makes a new, empty list of the kind to keep the hexes in, e.g. ArrayList::new. (It is called
+     *                  again by copy().)
+     */
+    public ListHexSequence(String name, Supplier<List<HexItem>> listMaker)
+    {
+        this.name = name;
+        this.listMaker = listMaker;
+        list = listMaker.get();
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int size()
+    {
+        return list.size();
+    }
+
+    public HexItem get(int index)
+    {
+        return list.get(index);
+    }
+
+    public HexItem set(int index, HexItem h)
+    {
+        return list.set(index, h);
+    }
+
+    public void insert(int index, HexItem h)
+    {
+        list.add(index, h);
+    }
+
+    public HexItem remove(int index)
+    {
+        return list.remove(index);
+    }
+
+    public void clear()
+    {
+        list.clear();
+    }
+
+    public int indexOf(HexItem h)
+    {
+        return list.indexOf(h);
+    }
+
+    public ListHexSequence copy()
+    {
+        ListHexSequence result = new ListHexSequence(name, listMaker);
+        result.list.addAll(list);
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A List of HexItems that tells its HexCollectionListeners about every change. It stores the items in another list
+ * (e.g. an ArrayList or a ShardedHexList) and passes every call along to it.
+ *
+ * Bulk changes (addAll(), clear()) fire one event, not one per item.
+ */
+public class ObservableHexList extends AbstractList<HexItem> implements RandomAccess
+{
+    private final List<HexItem> delegate;
+    private final List<HexCollectionListener> listeners = new CopyOnWriteArrayList<HexCollectionListener>();
+
+    /**
+     * @param delegate - the list that actually holds the items. Change it only through this ObservableHexList, or
+     *                 the listeners won't hear about it.
+     */
+    public ObservableHexList(List<HexItem> delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return - the list that actually holds the items
+     */
+    public List<HexItem> getDelegate()
+    {
+        return delegate;
+    }
+
+    public void addHexCollectionListener(HexCollectionListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public void removeHexCollectionListener(HexCollectionListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    private void fire(HexCollectionEvent.Type type, int firstIndex, int lastIndex)
+    {
+        if (listeners.isEmpty())
+            return;
+        List<HexCollectionEvent> events =
+                Collections.singletonList(new HexCollectionEvent(this, type, firstIndex, lastIndex));
+        for (HexCollectionListener listener : listeners)
+            listener.collectionChanged(events);
+    }
+
+    //----------------------------------------- List methods
+
+    @Override
+    public int size()
+    {
+        return delegate.size();
+    }
+
+    @Override
+    public HexItem get(int index)
+    {
+        return delegate.get(index);
+    }
+
+    @Override
+    public HexItem set(int index, HexItem h)
+    {
+        HexItem old = delegate.set(index, h);
+        fire(HexCollectionEvent.Type.SET, index, index);
+        return old;
+    }
+
+    @Override
+    public void add(int index, HexItem h)
+    {
+        delegate.add(index, h);
+        modCount++;
+        fire(HexCollectionEvent.Type.INSERT, index, index);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends HexItem> c)
+    {
+        int first = delegate.size();
+        if (!delegate.addAll(c))
+            return false;
+        modCount++;
+        fire(HexCollectionEvent.Type.INSERT, first, delegate.size() - 1);
+        return true;
+    }
+
+    @Override
+    public HexItem remove(int index)
+    {
+        HexItem removed = delegate.remove(index);
+        modCount++;
+        fire(HexCollectionEvent.Type.REMOVE, index, index);
+        return removed;
+    }
+
+    @Override
+    public void clear()
+    {
+        int oldSize = delegate.size();
+        delegate.clear();
+        modCount++;
+        fire(HexCollectionEvent.Type.CLEAR, 0, oldSize - 1);
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        return delegate.indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return delegate.contains(o);
+    }
+
+    /**
+     * tells HexMemoryReport how many listeners this list is holding on to.
+     * @return - the number of listeners
+     */
+    int getNumListeners()
+    {
+        return listeners.size();
+    }
+}
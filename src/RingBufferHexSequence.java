@@ -0,0 +1,128 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A HexSequence kept in a circular array, like java.util.ArrayDeque - but one that also allows inserting and removing
+ * in the middle. The hexes start at index "head" of the array and wrap around past the end to the beginning, so
+ * adding or removing at either end never moves anything, and inserting or removing in the middle only moves the
+ * hexes on whichever side of the index is shorter.
+ */
+public class RingBufferHexSequence implements HexSequence
+{
+    private HexItem[] hexes = new HexItem[16]; // the length is always a power of two, so we can wrap with a mask.
+    private int head = 0;
+    private int size = 0;
+
+    public String getName()
+    {
+        return "ring buffer";
+    }
+
+    /**
+     * @param index - an index into the sequence
+     * @return - where that hex is in the hexes array
+     */
+    private int slot(int index)
+    {
+        return (head + index) & (hexes.length - 1);
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public HexItem get(int index)
+    {
+        Objects.checkIndex(index, size);
+        return hexes[slot(index)];
+    }
+
+    public HexItem set(int index, HexItem h)
+    {
+        Objects.checkIndex(index, size);
+        int s = slot(index);
+        HexItem old = hexes[s];
+        hexes[s] = h;
+        return old;
+    }
+
+    public void insert(int index, HexItem h)
+    {
+        Objects.checkIndex(index, size + 1);
+        if (size == hexes.length)
+            grow();
+        if (index < size / 2)
+        {
+            // move the hexes before index one step towards the front.
+            head = (head - 1) & (hexes.length - 1);
+            for (int i = 0; i < index; i++)
+                hexes[slot(i)] = hexes[slot(i + 1)];
+        }
+        else
+        {
+            // move the hexes from index on one step towards the back.
+            for (int i = size; i > index; i--)
+                hexes[slot(i)] = hexes[slot(i - 1)];
+        }
+        hexes[slot(index)] = h;
+        size++;
+    }
+
+    public HexItem remove(int index)
+    {
+        Objects.checkIndex(index, size);
+        HexItem old = hexes[slot(index)];
+        if (index < size / 2)
+        {
+            for (int i = index; i > 0; i--)
+                hexes[slot(i)] = hexes[slot(i - 1)];
+            hexes[head] = null;
+            head = (head + 1) & (hexes.length - 1);
+        }
+        else
+        {
+            for (int i = index; i < size - 1; i++)
+                hexes[slot(i)] = hexes[slot(i + 1)];
+            hexes[slot(size - 1)] = null;
+        }
+        size--;
+        return old;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(hexes, null);
+        head = 0;
+        size = 0;
+    }
+
+    public int indexOf(HexItem h)
+    {
+        for (int i = 0; i < size; i++)
+            if (Objects.equals(h, hexes[slot(i)]))
+                return i;
+        return -1;
+    }
+
+    public RingBufferHexSequence copy()
+    {
+        RingBufferHexSequence result = new RingBufferHexSequence();
+        result.hexes = hexes.clone();
+        result.head = head;
+        result.size = size;
+        return result;
+    }
+
+    /**
+     * doubles the size of the array, unwrapping the hexes so they start at index 0 again.
+     */
+    private void grow()
+    {
+        HexItem[] bigger = new HexItem[2 * hexes.length];
+        for (int i = 0; i < size; i++)
+            bigger[i] = hexes[slot(i)];
+        hexes = bigger;
+        head = 0;
+    }
+}
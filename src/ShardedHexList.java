@@ -0,0 +1,665 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A List of HexItems that is split into several smaller ArrayLists ("shards"), one per processor core.
+ *
+ * Inserting or removing an item only shifts the items after it in the same shard, instead of the whole tail of the
+ * list. To turn a global index into (shard, index within shard) we keep a prefix-count (Fenwick) tree of the shard
+ * sizes, so that lookup takes O(log numShards) steps.
+ *
+ * Keeping the shards even costs copying, so we only rebuild them (an O(n) copy) when the list has doubled or halved
+ * since the last time, or when inserts and removes in the middle have piled up in a few shards. How we lay the items
+ * out depends on which kind of change has been happening:
+ *   - adding to the end never shifts anything, so for that we fill the shards in order, each up to twice its fair
+ *     share, and leave the last ones empty to be filled next. An append is O(log numShards) to find its shard, plus
+ *     amortized O(1) for the copying - however many shards there are.
+ *   - inserting and removing in the middle shifts the rest of a shard, so for that we spread the items evenly. Each
+ *     such change costs O(n / numShards) for the shift, plus amortized O(numShards) for the copying.
+ *
+ * There are two ways to use this list:
+ *   - as an ordinary List, with global indices. These methods lock the whole list, because a global index depends on
+ *     the sizes of every shard before it.
+ *   - with the ...Shard methods (addToShard(), removeFromShard(), etc.), which take a shard number and an index
+ *     within that shard. Each shard has its own lock, so different threads can mutate different shards at the same
+ *     time.
+ */
+public class ShardedHexList extends AbstractList<HexItem> implements RandomAccess
+{
+    // the smallest shardTarget - lists smaller than this times the number of shards aren't worth spreading out.
+    private static final int REBALANCE_SLACK = 1024;
+
+    private final ArrayList<HexItem>[] shards;
+    // the length of each shard's backing array. ArrayList won't tell us that, so we do all the growing ourselves
+    //    (with ensureCapacity(), by the same rule ArrayList uses) and write it down as we go.
+    private final int[] shardCapacities;
+    private final ReentrantLock[] shardLocks;
+    // sizeTree[i] (1-based) holds the total size of the shards in the range (i - lowestOneBit(i), i].
+    private final AtomicIntegerArray sizeTree;
+    // the ...Shard methods share this lock; the global-index methods take it exclusively.
+    private final ReentrantReadWriteLock structureLock;
+
+    // appends fill a shard up to this many items before moving on to the next one. It is twice the fair share as of
+    //    the last rebalance, so the shards have room for the list to double before we need to rebalance again.
+    private int shardTarget = REBALANCE_SLACK;
+    // what has happened since the last rebalance, to decide when and how to do the next one.
+    private long appendsSinceRebalance, middleChangesSinceRebalance;
+
+    /**
+     * makes a list with one shard per available processor.
+     */
+    public ShardedHexList()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * makes a list with the given number of shards.
+     * @param numShards - how many shards (at least 1)
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedHexList(int numShards)
+    {
+        if (numShards < 1)
+            throw new IllegalArgumentException("A ShardedHexList needs at least one shard, not " + numShards + ".");
+        shards = new ArrayList[numShards];
+        shardCapacities = new int[numShards];
+        shardLocks = new ReentrantLock[numShards];
+        for (int i = 0; i < numShards; i++)
+        {
+            shards[i] = new ArrayList<HexItem>(0);
+            shardLocks[i] = new ReentrantLock();
+        }
+        sizeTree = new AtomicIntegerArray(numShards + 1);
+        structureLock = new ReentrantReadWriteLock();
+    }
+
+    //----------------------------------------- prefix-count tree
+
+    /**
+     * records that the given shard got bigger (or smaller, if delta is negative).
+     */
+    private void adjustShardSize(int shard, int delta)
+    {
+        for (int i = shard + 1; i < sizeTree.length(); i += i & -i)
+            sizeTree.addAndGet(i, delta);
+    }
+
+    /**
+     * @return - the total number of items in the shards before the given one
+     */
+    private int countBefore(int shard)
+    {
+        int total = 0;
+        for (int i = shard; i > 0; i -= i & -i)
+            total += sizeTree.get(i);
+        return total;
+    }
+
+    /**
+     * finds the shard holding the item at the given global index. The caller must hold the write lock.
+     * @param index - a global index, 0 <= index < size()
+     * @return - the shard number in the high 32 bits and the index within that shard in the low 32 bits
+     */
+    private long locate(int index)
+    {
+        int numShards = shards.length;
+        int shard = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(numShards); step > 0; step >>= 1)
+        {
+            int next = shard + step;
+            if (next <= numShards && sizeTree.get(next) <= remaining)
+            {
+                shard = next;
+                remaining -= sizeTree.get(next);
+            }
+        }
+        return ((long) shard << 32) | remaining;
+    }
+
+    private static int shardOf(long location)
+    {
+        return (int) (location >>> 32);
+    }
+
+    private static int localIndexOf(long location)
+    {
+        return (int) location;
+    }
+
+    private void checkIndex(int index, int limit)
+    {
+        if (index < 0 || index >= limit)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+    }
+
+    /**
+     * makes sure the given shard's backing array can hold the given number of items, growing it by half (or to exactly
+     * that many, if that's more) if it can't - just as ArrayList would, but keeping track of the new length. The
+     * caller must hold the write lock or that shard's lock.
+     * @param shard - which shard
+     * @param needed - how many items it is about to hold
+     */
+    private void ensureShardCapacity(int shard, int needed)
+    {
+        int capacity = shardCapacities[shard];
+        if (needed <= capacity)
+            return;
+        // (this is ArrayList's rule, so ensureCapacity() makes the array exactly this long.)
+        int newCapacity = Math.max(needed, Math.max(capacity + (capacity >> 1), 10));
+        shards[shard].ensureCapacity(newCapacity);
+        shardCapacities[shard] = newCapacity;
+    }
+
+    /**
+     * @param numItems - how many items are in the whole list
+     * @return - the most items one shard should hold, with the middle inserts and removes evened out
+     */
+    private int getBalanceLimit(int numItems)
+    {
+        int fairShare = numItems / shards.length;
+        return fairShare + Math.max(fairShare / 2, REBALANCE_SLACK);
+    }
+
+    /**
+     * @return - the shard that an item added at the end of the list should go in: the last shard that has anything in
+     *           it - or, if that one is already up to shardTarget, the one after it (which is empty).
+     */
+    private int getAppendShard()
+    {
+        int size = size();
+        if (size == 0)
+            return 0;
+        int last = shardOf(locate(size - 1));
+        if (shards[last].size() >= shardTarget && last < shards.length - 1)
+            return last + 1;
+        return last;
+    }
+
+    /**
+     * rebuilds the shards if the list has doubled or halved since the last rebalance, or if enough inserts and removes
+     * in the middle have happened to pay for checking whether they left the shards uneven. Everything here is O(1),
+     * apart from the check (O(numShards)) and the rebuild itself (O(n)), which only happen after a number of changes
+     * proportional to their cost. The caller must hold the write lock.
+     */
+    private void rebalanceIfNeeded()
+    {
+        if (shards.length == 1)
+            return; // (nothing to even out.)
+        int size = size();
+        long roomForAll = (long) shards.length * shardTarget;
+        if (size > roomForAll || (shardTarget > REBALANCE_SLACK && size < roomForAll / 4))
+        {
+            rebalance();
+            return;
+        }
+        if (middleChangesSinceRebalance >= Math.max(size / shards.length, REBALANCE_SLACK))
+        {
+            int limit = getBalanceLimit(size);
+            for (ArrayList<HexItem> s : shards)
+                if (s.size() > limit)
+                {
+                    rebalance();
+                    return;
+                }
+            // still even enough - check again after as many more changes.
+            middleChangesSinceRebalance = 0;
+        }
+    }
+
+    /**
+     * lays the items out in the shards again - filling the shards in order up to twice their fair share if most of
+     * the recent changes were appends, or evenly otherwise (see the class comment). Each new shard's ArrayList is
+     * made exactly big enough, and each old shard is let go as soon as it has been copied, so this needs room for
+     * about n more references, not 2n. The caller must hold the write lock.
+     */
+    @SuppressWarnings("unchecked")
+    private void rebalance()
+    {
+        int total = size();
+        int numShards = shards.length;
+        boolean forAppends = appendsSinceRebalance >= middleChangesSinceRebalance;
+        shardTarget = (int) Math.max(REBALANCE_SLACK, Math.min((2L * total + numShards - 1) / numShards,
+                Integer.MAX_VALUE - 8));
+        int perShard = forAppends ? shardTarget : (total + numShards - 1) / numShards;
+
+        ArrayList<HexItem>[] oldShards = shards.clone();
+        for (int i = 0; i < numShards; i++)
+        {
+            shards[i] = new ArrayList<HexItem>(0);
+            shardCapacities[i] = 0;
+        }
+        int newShard = -1;
+        int room = 0;
+        int remaining = total;
+        for (int i = 0; i < numShards; i++)
+        {
+            for (HexItem h : oldShards[i])
+            {
+                if (room == 0)
+                {
+                    newShard++;
+                    room = Math.min(perShard, remaining);
+                    shards[newShard] = new ArrayList<HexItem>(room);
+                    shardCapacities[newShard] = room;
+                }
+                shards[newShard].add(h);
+                room--;
+                remaining--;
+            }
+            oldShards[i] = null; // (nothing else refers to it now, so it can be garbage collected.)
+        }
+
+        for (int i = 1; i < sizeTree.length(); i++)
+            sizeTree.set(i, 0);
+        for (int i = 0; i < numShards; i++)
+            adjustShardSize(i, shards[i].size());
+        appendsSinceRebalance = 0;
+        middleChangesSinceRebalance = 0;
+    }
+
+    //----------------------------------------- List methods (global indices)
+
+    @Override
+    public int size()
+    {
+        return countBefore(shards.length);
+    }
+
+    @Override
+    public HexItem get(int index)
+    {
+        structureLock.writeLock().lock();
+        try
+        {
+            checkIndex(index, size());
+            long where = locate(index);
+            return shards[shardOf(where)].get(localIndexOf(where));
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public HexItem set(int index, HexItem h)
+    {
+        structureLock.writeLock().lock();
+        try
+        {
+            checkIndex(index, size());
+            long where = locate(index);
+            return shards[shardOf(where)].set(localIndexOf(where), h);
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void add(int index, HexItem h)
+    {
+        structureLock.writeLock().lock();
+        try
+        {
+            int size = size();
+            checkIndex(index, size + 1);
+            int shard;
+            if (index == size)
+            {
+                // adding to the end - that goes at the end of the last shard in use (or the next one).
+                shard = getAppendShard();
+                ensureShardCapacity(shard, shards[shard].size() + 1);
+                shards[shard].add(h);
+                appendsSinceRebalance++;
+            }
+            else
+            {
+                long where = locate(index);
+                shard = shardOf(where);
+                ensureShardCapacity(shard, shards[shard].size() + 1);
+                shards[shard].add(localIndexOf(where), h);
+                middleChangesSinceRebalance++;
+            }
+            adjustShardSize(shard, 1);
+            modCount++;
+            rebalanceIfNeeded();
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends HexItem> c)
+    {
+        if (c.isEmpty())
+            return false;
+        structureLock.writeLock().lock();
+        try
+        {
+            // fill the shards in order, as add() would one item at a time.
+            Object[] items = c.toArray();
+            int done = 0;
+            while (done < items.length)
+            {
+                int shard = getAppendShard();
+                int count = items.length - done;
+                if (shard < shards.length - 1)
+                    count = Math.min(count, Math.max(1, shardTarget - shards[shard].size()));
+                ensureShardCapacity(shard, shards[shard].size() + count);
+                for (int i = done; i < done + count; i++)
+                    shards[shard].add((HexItem) items[i]);
+                adjustShardSize(shard, count);
+                done += count;
+            }
+            appendsSinceRebalance += items.length;
+            modCount++;
+            rebalanceIfNeeded();
+            return true;
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public HexItem remove(int index)
+    {
+        structureLock.writeLock().lock();
+        try
+        {
+            checkIndex(index, size());
+            long where = locate(index);
+            int shard = shardOf(where);
+            HexItem removed = shards[shard].remove(localIndexOf(where));
+            adjustShardSize(shard, -1);
+            middleChangesSinceRebalance++;
+            modCount++;
+            rebalanceIfNeeded();
+            return removed;
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        structureLock.writeLock().lock();
+        try
+        {
+            for (ArrayList<HexItem> s : shards)
+                s.clear();
+            for (int i = 1; i < sizeTree.length(); i++)
+                sizeTree.set(i, 0);
+            shardTarget = REBALANCE_SLACK;
+            appendsSinceRebalance = 0;
+            middleChangesSinceRebalance = 0;
+            modCount++;
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int indexOf(Object o)
+    {
+        structureLock.writeLock().lock();
+        try
+        {
+            // walk the shards directly, rather than calling get(i) once per item.
+            int offset = 0;
+            for (ArrayList<HexItem> s : shards)
+            {
+                int i = s.indexOf(o);
+                if (i >= 0)
+                    return offset + i;
+                offset += s.size();
+            }
+            return -1;
+        }
+        finally
+        {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return indexOf(o) >= 0;
+    }
+
+    //----------------------------------------- per-shard methods (safe to call from several threads)
+
+    /**
+     * @return - the number of shards this list is split into
+     */
+    public int getNumShards()
+    {
+        return shards.length;
+    }
+
+    /**
+     * @param shard - which shard
+     * @return - how many items are in that shard right now
+     */
+    public int getShardSize(int shard)
+    {
+        return countBefore(shard + 1) - countBefore(shard);
+    }
+
+    /**
+     * gets an item from one shard.
+     * @param shard - which shard
+     * @param localIndex - the index within that shard
+     * @return - the item there
+     */
+    public HexItem getFromShard(int shard, int localIndex)
+    {
+        lockShard(shard);
+        try
+        {
+            return shards[shard].get(localIndex);
+        }
+        finally
+        {
+            unlockShard(shard);
+        }
+    }
+
+    /**
+     * replaces an item in one shard.
+     * @param shard - which shard
+     * @param localIndex - the index within that shard
+     * @param h - the new item
+     * @return - the item that used to be there
+     */
+    public HexItem setInShard(int shard, int localIndex, HexItem h)
+    {
+        lockShard(shard);
+        try
+        {
+            return shards[shard].set(localIndex, h);
+        }
+        finally
+        {
+            unlockShard(shard);
+        }
+    }
+
+    /**
+     * adds an item to the end of one shard.
+     * @param shard - which shard
+     * @param h - the item to add
+     */
+    public void addToShard(int shard, HexItem h)
+    {
+        lockShard(shard);
+        try
+        {
+            ensureShardCapacity(shard, shards[shard].size() + 1);
+            shards[shard].add(h);
+            adjustShardSize(shard, 1);
+        }
+        finally
+        {
+            unlockShard(shard);
+        }
+    }
+
+    /**
+     * inserts an item into one shard, shifting only the items after it in that shard.
+     * @param shard - which shard
+     * @param localIndex - the index within that shard (0 to getShardSize(shard), inclusive)
+     * @param h - the item to insert
+     */
+    public void insertIntoShard(int shard, int localIndex, HexItem h)
+    {
+        lockShard(shard);
+        try
+        {
+            ensureShardCapacity(shard, shards[shard].size() + 1);
+            shards[shard].add(localIndex, h);
+            adjustShardSize(shard, 1);
+        }
+        finally
+        {
+            unlockShard(shard);
+        }
+    }
+
+    /**
+     * removes an item from one shard, shifting only the items after it in that shard.
+     * @param shard - which shard
+     * @param localIndex - the index within that shard
+     * @return - the item that was removed
+     */
+    public HexItem removeFromShard(int shard, int localIndex)
+    {
+        lockShard(shard);
+        try
+        {
+            HexItem removed = shards[shard].remove(localIndex);
+            adjustShardSize(shard, -1);
+            return removed;
+        }
+        finally
+        {
+            unlockShard(shard);
+        }
+    }
+
+    private void lockShard(int shard)
+    {
+        Objects.checkIndex(shard, shards.length);
+        structureLock.readLock().lock();
+        shardLocks[shard].lock();
+    }
+
+    private void unlockShard(int shard)
+    {
+        shardLocks[shard].unlock();
+        structureLock.readLock().unlock();
+    }
+
+    /**
+     * gives HexMemoryReport a look at the backing list of one shard. Not for modifying!
+     * @param shard - which shard
+     * @return - the ArrayList holding that shard's items
+     */
+    ArrayList<HexItem> getShardList(int shard)
+    {
+        return shards[shard];
+    }
+
+    /**
+     * tells HexMemoryReport how long one shard's backing array is. (This includes the room left over after removes
+     * and clear(), which an ArrayList keeps.)
+     * @param shard - which shard
+     * @return - the length of that shard's backing array
+     */
+    int getShardCapacity(int shard)
+    {
+        return shardCapacities[shard];
+    }
+
+    //----------------------------------------- balance check
+
+    /**
+     * fills lists of 2, 4 and 64 shards by appending, by inserting at random places and by removing again, and checks
+     * that no shard ends up holding more than twice its fair share (give or take REBALANCE_SLACK). Then it times a big
+     * import-sized run of appends against a plain ArrayList, to check that appending stays O(1) however many shards
+     * there are. Prints the shard sizes and timings, and exits with status 1 if anything is out of line.
+     * @param args - optionally, the number of items to add (default 100000)
+     */
+    public static void main(String[] args)
+    {
+        int numItems = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+        java.util.Random rand = new java.util.Random(1);
+        HexItem h = new HexItem("A", 0);
+        boolean allOK = true;
+        for (int numShards : new int[]{2, 4, 64})
+        {
+            for (String how : new String[]{"append", "insert", "remove"})
+            {
+                ShardedHexList list = new ShardedHexList(numShards);
+                for (int i = 0; i < numItems; i++)
+                {
+                    if (how.equals("insert"))
+                        list.add(rand.nextInt(list.size() + 1), h);
+                    else
+                        list.add(h);
+                }
+                if (how.equals("remove"))
+                    for (int i = 0; i < numItems / 2; i++)
+                        list.remove(rand.nextInt(list.size()));
+
+                int limit = 2 * (list.size() / numShards) + REBALANCE_SLACK;
+                int biggest = 0;
+                for (int sh = 0; sh < numShards; sh++)
+                    biggest = Math.max(biggest, list.getShardSize(sh));
+                System.out.printf("%2d shards, %-6s: biggest shard %,7d (fair share %,7d)%s%n", numShards, how,
+                        biggest, list.size() / numShards, (biggest <= limit) ? "" : "   UNBALANCED");
+                allOK &= (biggest <= limit);
+            }
+        }
+
+        // appending in batches, as HexFileImporter does. Each is timed twice, and we keep the second.
+        List<HexItem> batch = java.util.Collections.nCopies(4096, h);
+        int numBatches = Math.max(1, 20 * numItems / batch.size());
+        long[] nanos = new long[2];
+        for (int pass = 0; pass < 2; pass++)
+            for (int which = 0; which < 2; which++)
+            {
+                List<HexItem> list = (which == 0) ? new ArrayList<HexItem>() : new ShardedHexList(64);
+                long start = System.nanoTime();
+                for (int b = 0; b < numBatches; b++)
+                    list.addAll(batch);
+                nanos[which] = System.nanoTime() - start;
+            }
+        double ratio = (double) nanos[1] / nanos[0];
+        System.out.printf("appending %,d: ArrayList %.1f ms, 64 shards %.1f ms (%.1fx)%s%n", numBatches * batch.size(),
+                nanos[0] / 1e6, nanos[1] / 1e6, ratio, (ratio <= 10) ? "" : "   TOO SLOW");
+        allOK &= (ratio <= 10);
+        if (!allOK)
+            System.exit(1);
+    }
+}